@@ -9,22 +9,43 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+/**
+ * Notifications travel on two lanes, each its own queue bound to the topic
+ * exchange by routing key {@code notification.<lane>.<type>}: a priority lane
+ * for the codes a user is waiting on, and a bulk lane for everything else.
+ * Both are priority queues, so within a lane more urgent types overtake. A
+ * message that outlives its lane's TTL, or is rejected by the consumer, is
+ * dead-lettered to {@code notification-dlx} rather than dropped.
+ */
 @Configuration
 public class RabbitMQConfig {
 
-    @Value("${spring.rabbitmq.notification.queue.name}")
-    private String notificationQueueName;
+    public static final String PRIORITY_ROUTING_PREFIX = "notification.priority.";
+    public static final String BULK_ROUTING_PREFIX = "notification.bulk.";
+
+    // NotificationType priorities run from 0 to 9
+    private static final int MAX_PRIORITY = 9;
 
     @Value("${spring.rabbitmq.notification.exchange.name}")
     private String notificationExchangeName;
 
-    @Value("${spring.rabbitmq.notification.routing.key}")
-    private String notificationRoutingKey;
+    @Value("${spring.rabbitmq.notification.lanes.priority.queue}")
+    private String priorityQueueName;
 
-    @Bean
-    public Queue notificationQueue() {
-        return new Queue(notificationQueueName, true);
-    }
+    @Value("${spring.rabbitmq.notification.lanes.priority.message-ttl-ms}")
+    private int priorityMessageTtlMs;
+
+    @Value("${spring.rabbitmq.notification.lanes.bulk.queue}")
+    private String bulkQueueName;
+
+    @Value("${spring.rabbitmq.notification.lanes.bulk.message-ttl-ms}")
+    private int bulkMessageTtlMs;
+
+    @Value("${spring.rabbitmq.notification.dead-letter.exchange}")
+    private String deadLetterExchangeName;
+
+    @Value("${spring.rabbitmq.notification.dead-letter.queue}")
+    private String deadLetterQueueName;
 
     @Bean
     public TopicExchange notificationExchange() {
@@ -32,10 +53,44 @@ public class RabbitMQConfig {
     }
 
     @Bean
-    public Binding notificationBinding() {
-        return BindingBuilder.bind(notificationQueue())
+    public Queue notificationPriorityQueue() {
+        return laneQueue(priorityQueueName, priorityMessageTtlMs);
+    }
+
+    @Bean
+    public Queue notificationBulkQueue() {
+        return laneQueue(bulkQueueName, bulkMessageTtlMs);
+    }
+
+    @Bean
+    public Binding notificationPriorityBinding() {
+        return BindingBuilder.bind(notificationPriorityQueue())
+                .to(notificationExchange())
+                .with(PRIORITY_ROUTING_PREFIX + "#");
+    }
+
+    @Bean
+    public Binding notificationBulkBinding() {
+        return BindingBuilder.bind(notificationBulkQueue())
                 .to(notificationExchange())
-                .with(notificationRoutingKey);
+                .with(BULK_ROUTING_PREFIX + "#");
+    }
+
+    @Bean
+    public TopicExchange notificationDeadLetterExchange() {
+        return new TopicExchange(deadLetterExchangeName);
+    }
+
+    @Bean
+    public Queue notificationDeadLetterQueue() {
+        return QueueBuilder.durable(deadLetterQueueName).build();
+    }
+
+    @Bean
+    public Binding notificationDeadLetterBinding() {
+        return BindingBuilder.bind(notificationDeadLetterQueue())
+                .to(notificationDeadLetterExchange())
+                .with("#");
     }
 
     @Bean
@@ -47,6 +102,17 @@ public class RabbitMQConfig {
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
         rabbitTemplate.setMessageConverter(jsonMessageConverter());
+        // Unroutable messages come back instead of vanishing; with publisher
+        // returns enabled NotificationPublisher treats them as failed
+        rabbitTemplate.setMandatory(true);
         return rabbitTemplate;
     }
+
+    private Queue laneQueue(String name, int messageTtlMs) {
+        return QueueBuilder.durable(name)
+                .maxPriority(MAX_PRIORITY)
+                .ttl(messageTtlMs)
+                .deadLetterExchange(deadLetterExchangeName)
+                .build();
+    }
 }
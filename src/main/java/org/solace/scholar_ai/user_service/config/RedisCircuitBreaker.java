@@ -0,0 +1,295 @@
+package org.solace.scholar_ai.user_service.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shared view of Redis availability, so a degraded Redis costs callers one
+ * failed call each rather than a full command timeout per request.
+ *
+ * <ul>
+ *   <li>CLOSED: calls go to Redis; outcomes are recorded in a sliding window
+ *       and the breaker opens once the failure rate crosses the threshold.</li>
+ *   <li>OPEN: calls short-circuit to their fallback. A background probe pings
+ *       Redis once the open duration has passed.</li>
+ *   <li>HALF_OPEN: after a successful probe a limited number of real calls
+ *       are let through; if all succeed the breaker closes, otherwise it
+ *       opens again. A trial that has not concluded within the open duration
+ *       is probed again, so it cannot hold the breaker half-open.</li>
+ * </ul>
+ *
+ * Only a {@link DataAccessException} counts as a Redis failure. Any other
+ * exception from a call is rethrown without recording an outcome, and a
+ * half-open permit it held is handed back.
+ *
+ * State is exposed as the {@code redisCircuitBreaker} health component and the
+ * {@code redis.circuit.state} gauge.
+ */
+@Component
+public class RedisCircuitBreaker implements HealthIndicator {
+    private static final Logger logger = LoggerFactory.getLogger(RedisCircuitBreaker.class);
+    private static final Status DEGRADED = new Status("DEGRADED", "Redis calls are short-circuited to fallbacks");
+
+    public enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    private final RedisConnectionFactory connectionFactory;
+    private final int failureRateThreshold;
+    private final int minimumCalls;
+    private final long openDurationMs;
+    private final int halfOpenPermits;
+
+    // Outcomes of the most recent calls while closed; true marks a failure
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+
+    private volatile State state = State.CLOSED;
+    private volatile long openedAt;
+    private volatile long halfOpenedAt;
+    private final AtomicInteger halfOpenRemaining = new AtomicInteger();
+    private final AtomicInteger halfOpenSucceeded = new AtomicInteger();
+    private final Counter shortCircuited;
+    private final MeterRegistry meterRegistry;
+    private final CopyOnWriteArrayList<Runnable> closeListeners = new CopyOnWriteArrayList<>();
+
+    public RedisCircuitBreaker(
+            RedisConnectionFactory connectionFactory,
+            MeterRegistry meterRegistry,
+            @Value("${spring.app.redis.circuit-breaker.failure-rate-threshold:50}") int failureRateThreshold,
+            @Value("${spring.app.redis.circuit-breaker.window-size:20}") int windowSize,
+            @Value("${spring.app.redis.circuit-breaker.minimum-calls:10}") int minimumCalls,
+            @Value("${spring.app.redis.circuit-breaker.open-duration-ms:5000}") long openDurationMs,
+            @Value("${spring.app.redis.circuit-breaker.half-open-permits:5}") int halfOpenPermits) {
+        this.connectionFactory = connectionFactory;
+        this.meterRegistry = meterRegistry;
+        this.failureRateThreshold = failureRateThreshold;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.openDurationMs = openDurationMs;
+        this.halfOpenPermits = halfOpenPermits;
+
+        this.shortCircuited = Counter.builder("redis.circuit.short.circuited")
+                .description("Redis calls answered by a fallback because the circuit was open")
+                .register(meterRegistry);
+        Gauge.builder("redis.circuit.state", this, breaker -> breaker.state.ordinal())
+                .description("Redis circuit state: 0 closed, 1 half-open, 2 open")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a Redis call through the breaker.
+     *
+     * @param call     The Redis call.
+     * @param fallback Answers instead of Redis while the circuit is open or when
+     *                 the call fails.
+     * @return The call's result, or the fallback's.
+     */
+    public <T> T execute(Supplier<T> call, Supplier<T> fallback) {
+        State acquiredIn = state;
+        if (!tryAcquire(acquiredIn)) {
+            shortCircuited.increment();
+            return fallback.get();
+        }
+        T result;
+        try {
+            result = call.get();
+        } catch (DataAccessException e) {
+            onFailure();
+            logger.warn("Redis call failed, using fallback: {}", e.getMessage());
+            return fallback.get();
+        } catch (RuntimeException e) {
+            // Says nothing about Redis availability, but must not use up a trial permit
+            if (acquiredIn == State.HALF_OPEN && state == State.HALF_OPEN) {
+                halfOpenRemaining.incrementAndGet();
+            }
+            throw e;
+        }
+        onSuccess();
+        return result;
+    }
+
+    /**
+     * Runs a Redis call that returns nothing through the breaker.
+     *
+     * @param call     The Redis call.
+     * @param fallback Runs instead of Redis while the circuit is open or when the
+     *                 call fails.
+     */
+    public void run(Runnable call, Runnable fallback) {
+        execute(
+                () -> {
+                    call.run();
+                    return null;
+                },
+                () -> {
+                    fallback.run();
+                    return null;
+                });
+    }
+
+    /**
+     * @return True while calls are being let through to Redis.
+     */
+    public boolean isAvailable() {
+        return state != State.OPEN;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Registers a callback that runs each time the circuit closes again, e.g. to
+     * reconcile state written to a fallback during the outage. Callbacks run on
+     * a background thread, not on the caller that closed the circuit.
+     *
+     * @param listener The callback.
+     */
+    public void onClose(Runnable listener) {
+        closeListeners.add(listener);
+    }
+
+    /**
+     * Pings Redis in the background once the open duration has passed, so
+     * recovery does not depend on a caller paying for a timed-out call. A
+     * half-open trial still undecided after the open duration is restarted if
+     * the ping succeeds, and opens the circuit if it fails.
+     */
+    @Scheduled(fixedDelayString = "${spring.app.redis.circuit-breaker.probe-interval-ms:1000}")
+    void probe() {
+        State current = state;
+        long since = current == State.HALF_OPEN ? halfOpenedAt : openedAt;
+        if (current == State.CLOSED || System.currentTimeMillis() - since < openDurationMs) {
+            return;
+        }
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.ping();
+            halfOpenRemaining.set(halfOpenPermits);
+            halfOpenSucceeded.set(0);
+            halfOpenedAt = System.currentTimeMillis();
+            transitionTo(State.HALF_OPEN);
+        } catch (Exception e) {
+            logger.debug("Redis probe failed, circuit stays open: {}", e.getMessage());
+            open();
+        }
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = state == State.OPEN ? Health.status(DEGRADED) : Health.up();
+        synchronized (window) {
+            return builder.withDetail("state", state)
+                    .withDetail("recentCalls", windowCount)
+                    .withDetail("recentFailures", windowFailures)
+                    .build();
+        }
+    }
+
+    // Half-open permits never go below zero, so a permit handed back is usable again
+    private boolean tryAcquire(State current) {
+        return switch (current) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> halfOpenRemaining.getAndUpdate(n -> n > 0 ? n - 1 : n) > 0;
+        };
+    }
+
+    private void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (halfOpenSucceeded.incrementAndGet() >= halfOpenPermits) {
+                resetWindow();
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        record(false);
+    }
+
+    private void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        if (record(true)) {
+            open();
+        }
+    }
+
+    /**
+     * Records an outcome and reports whether the failure rate now warrants
+     * opening the circuit.
+     */
+    private boolean record(boolean failure) {
+        synchronized (window) {
+            if (windowCount == window.length) {
+                if (window[windowIndex]) {
+                    windowFailures--;
+                }
+            } else {
+                windowCount++;
+            }
+            window[windowIndex] = failure;
+            if (failure) {
+                windowFailures++;
+            }
+            windowIndex = (windowIndex + 1) % window.length;
+
+            return windowCount >= minimumCalls && windowFailures * 100 >= failureRateThreshold * windowCount;
+        }
+    }
+
+    private void resetWindow() {
+        synchronized (window) {
+            windowIndex = 0;
+            windowCount = 0;
+            windowFailures = 0;
+        }
+    }
+
+    private void open() {
+        openedAt = System.currentTimeMillis();
+        transitionTo(State.OPEN);
+    }
+
+    private synchronized void transitionTo(State next) {
+        State previous = state;
+        if (previous == next) {
+            return;
+        }
+        state = next;
+        meterRegistry.counter("redis.circuit.transitions", "to", next.name()).increment();
+        logger.warn("Redis circuit breaker {} -> {}", previous, next);
+
+        if (next == State.CLOSED) {
+            for (Runnable listener : closeListeners) {
+                Thread.ofVirtual().name("redis-circuit-closed").start(() -> {
+                    try {
+                        listener.run();
+                    } catch (Exception e) {
+                        logger.error("Redis circuit close listener failed", e);
+                    }
+                });
+            }
+        }
+    }
+}
@@ -4,6 +4,7 @@ import java.util.HashMap;
 import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.solace.scholar_ai.user_service.config.RedisCircuitBreaker;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,14 +16,25 @@ import org.springframework.web.bind.annotation.RestController;
 public class HealthController {
     private static final Logger logger = LoggerFactory.getLogger(HealthController.class);
     private final RedisTemplate<String, String> redisTemplate;
+    private final RedisCircuitBreaker redisCircuitBreaker;
 
-    public HealthController(RedisTemplate<String, String> redisTemplate) {
+    public HealthController(RedisTemplate<String, String> redisTemplate, RedisCircuitBreaker redisCircuitBreaker) {
         this.redisTemplate = redisTemplate;
+        this.redisCircuitBreaker = redisCircuitBreaker;
     }
 
     @GetMapping("/redis")
     public ResponseEntity<Map<String, Object>> checkRedisHealth() {
         Map<String, Object> response = new HashMap<>();
+        response.put("circuitState", redisCircuitBreaker.getState());
+
+        // Don't pile health checks onto a Redis the breaker already knows is down
+        if (!redisCircuitBreaker.isAvailable()) {
+            response.put("status", "DOWN");
+            response.put("message", "Redis circuit breaker is open; requests are using fallbacks");
+            response.put("timestamp", System.currentTimeMillis());
+            return ResponseEntity.status(503).body(response);
+        }
 
         try {
             // Test Redis connection by performing a simple operation
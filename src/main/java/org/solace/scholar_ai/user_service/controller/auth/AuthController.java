@@ -26,6 +26,9 @@ import org.solace.scholar_ai.user_service.dto.auth.RefreshTokenRequest;
 import org.solace.scholar_ai.user_service.dto.auth.ResendEmailConfirmationDTO;
 import org.solace.scholar_ai.user_service.dto.auth.SignupDTO;
 import org.solace.scholar_ai.user_service.dto.response.APIResponse;
+import org.solace.scholar_ai.user_service.exception.RetryLaterException;
+import org.solace.scholar_ai.user_service.security.AuthRateLimiter;
+import org.solace.scholar_ai.user_service.security.RateLimitedRoute;
 import org.solace.scholar_ai.user_service.service.auth.AuthService;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -33,6 +36,7 @@ import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.WebUtils;
 
 @RestController
 @RequestMapping("api/v1/auth")
@@ -44,6 +48,7 @@ public class AuthController {
 
     private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
     private final AuthService authService;
+    private final AuthRateLimiter authRateLimiter;
 
     @Operation(
             summary = "User Registration",
@@ -115,6 +120,7 @@ public class AuthController {
                     @RequestBody
                     SignupDTO signupDTO,
             HttpServletRequest request) {
+        authRateLimiter.check(RateLimitedRoute.REGISTER, request, signupDTO.getEmail());
         try {
             logger.info("/register endpoint hit with request: {}", request.getRemoteAddr());
 
@@ -122,6 +128,7 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(APIResponse.success(HttpStatus.CREATED.value(), "User registered successfully", null));
         } catch (Exception e) {
+            RetryLaterException.rethrowIfPresent(e);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(APIResponse.error(
                             HttpStatus.BAD_REQUEST.value(), "Registration failed: " + e.getMessage(), null));
@@ -211,10 +218,12 @@ public class AuthController {
                     LoginDTO loginDTO,
             HttpServletRequest request,
             HttpServletResponse response) {
+        authRateLimiter.check(RateLimitedRoute.LOGIN, request, loginDTO.getEmail());
         try {
             logger.info("login endpoint hit with request: {}", request.getRemoteAddr());
 
-            AuthResponse authResponse = authService.loginUser(loginDTO.getEmail(), loginDTO.getPassword());
+            AuthResponse authResponse = authService.loginUser(
+                    loginDTO.getEmail(), loginDTO.getPassword(), request.getHeader(HttpHeaders.USER_AGENT));
 
             logger.info("got auth response from authService for login request");
 
@@ -241,6 +250,7 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(APIResponse.error(HttpStatus.UNAUTHORIZED.value(), "Invalid email or password", null));
         } catch (Exception e) {
+            RetryLaterException.rethrowIfPresent(e);
             logger.error("Login error: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(APIResponse.error(
@@ -401,7 +411,7 @@ public class AuthController {
                         Logout user and invalidate tokens.
 
                         **What happens:**
-                        1. Invalidates the current user's tokens
+                        1. Invalidates the refresh token of this session (other devices stay signed in)
                         2. Clears the refresh token cookie
                         3. User will need to login again for new tokens
                         """)
@@ -435,7 +445,8 @@ public class AuthController {
             logger.info("logout endpoint hit");
 
             String email = principal.getName();
-            authService.logoutUser(email);
+            Cookie refreshCookie = WebUtils.getCookie(request, "refreshToken");
+            authService.logoutUser(email, refreshCookie != null ? refreshCookie.getValue() : null);
 
             // Clear the cookie using ResponseCookie
             ResponseCookie clearCookie = ResponseCookie.from("refreshToken", "")
@@ -507,7 +518,9 @@ public class AuthController {
     @PostMapping("/forgot-password")
     public ResponseEntity<APIResponse<String>> forgotPassword(
             @Parameter(description = "Email address for password reset", example = "user@example.com") @RequestParam
-                    String email) {
+                    String email,
+            HttpServletRequest request) {
+        authRateLimiter.check(RateLimitedRoute.FORGOT_PASSWORD, request, email);
         try {
             logger.info("forgot password endpoint hit with email: {}", email);
 
@@ -518,6 +531,7 @@ public class AuthController {
                             + " (This will be sent via notification service later)",
                     resetCode));
         } catch (Exception e) {
+            RetryLaterException.rethrowIfPresent(e);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(APIResponse.error(HttpStatus.BAD_REQUEST.value(), e.getMessage(), null));
         }
@@ -577,14 +591,16 @@ public class AuthController {
     public ResponseEntity<APIResponse<String>> resetPassword(
             @Parameter(description = "Email address", example = "user@example.com") @RequestParam String email,
             @Parameter(description = "Reset code received via email", example = "123456") @RequestParam String code,
-            @Parameter(description = "New password", example = "newSecurePassword123") @RequestParam
-                    String newPassword) {
+            @Parameter(description = "New password", example = "newSecurePassword123") @RequestParam String newPassword,
+            HttpServletRequest request) {
+        authRateLimiter.check(RateLimitedRoute.RESET_PASSWORD, request, email);
         try {
             logger.info("reset-password endpoint hit with email: {}, code: {}", email, code);
 
             authService.verifyCodeAndResetPassword(email, code, newPassword);
             return ResponseEntity.ok(APIResponse.success(HttpStatus.OK.value(), "Password reset successfully.", null));
         } catch (Exception e) {
+            RetryLaterException.rethrowIfPresent(e);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(APIResponse.error(HttpStatus.BAD_REQUEST.value(), e.getMessage(), null));
         }
@@ -658,7 +674,9 @@ public class AuthController {
                                         """)))
                     @Valid
                     @RequestBody
-                    EmailConfirmationDTO emailConfirmationDTO) {
+                    EmailConfirmationDTO emailConfirmationDTO,
+            HttpServletRequest request) {
+        authRateLimiter.check(RateLimitedRoute.CONFIRM_EMAIL, request, emailConfirmationDTO.getEmail());
         try {
             logger.info("confirm-email endpoint hit with email: {}", emailConfirmationDTO.getEmail());
 
@@ -666,6 +684,7 @@ public class AuthController {
             return ResponseEntity.ok(APIResponse.success(
                     HttpStatus.OK.value(), "Email confirmed successfully. Welcome email sent.", null));
         } catch (Exception e) {
+            RetryLaterException.rethrowIfPresent(e);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(APIResponse.error(HttpStatus.BAD_REQUEST.value(), e.getMessage(), null));
         }
@@ -735,7 +754,10 @@ public class AuthController {
                                         """)))
                     @Valid
                     @RequestBody
-                    ResendEmailConfirmationDTO resendEmailConfirmationDTO) {
+                    ResendEmailConfirmationDTO resendEmailConfirmationDTO,
+            HttpServletRequest request) {
+        authRateLimiter.check(
+                RateLimitedRoute.RESEND_EMAIL_VERIFICATION, request, resendEmailConfirmationDTO.getEmail());
         try {
             logger.info("resend-email-verification endpoint hit with email: {}", resendEmailConfirmationDTO.getEmail());
 
@@ -743,6 +765,7 @@ public class AuthController {
             return ResponseEntity.ok(
                     APIResponse.success(HttpStatus.OK.value(), "Verification email sent successfully", null));
         } catch (Exception e) {
+            RetryLaterException.rethrowIfPresent(e);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(APIResponse.error(HttpStatus.BAD_REQUEST.value(), e.getMessage(), null));
         }
@@ -0,0 +1,37 @@
+package org.solace.scholar_ai.user_service.controller.auth;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.time.Duration;
+import lombok.RequiredArgsConstructor;
+import org.solace.scholar_ai.user_service.security.SigningKeyRing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "JWKS", description = "Public keys for verifying ScholarAI access tokens")
+public class JwksController {
+
+    private final SigningKeyRing signingKeyRing;
+
+    @Value("${spring.app.jwt.jwks-max-age-seconds:300}")
+    private long jwksMaxAgeSeconds;
+
+    @Operation(
+            summary = "JSON Web Key Set",
+            description = "Public keys other services use to verify access tokens locally, matched by the `kid` header")
+    @GetMapping(value = "/.well-known/jwks.json", produces = "application/jwk-set+json")
+    public ResponseEntity<String> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(jwksMaxAgeSeconds))
+                        .cachePublic()
+                        .staleWhileRevalidate(Duration.ofSeconds(jwksMaxAgeSeconds)))
+                .contentType(MediaType.parseMediaType("application/jwk-set+json"))
+                .body(signingKeyRing.jwksJson());
+    }
+}
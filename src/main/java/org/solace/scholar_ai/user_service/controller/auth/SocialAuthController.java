@@ -14,6 +14,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.solace.scholar_ai.user_service.dto.auth.AuthResponse;
 import org.solace.scholar_ai.user_service.dto.response.APIResponse;
+import org.solace.scholar_ai.user_service.exception.RetryLaterException;
 import org.solace.scholar_ai.user_service.service.auth.SocialAuthService;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -178,6 +179,7 @@ public class SocialAuthController {
                     .body(APIResponse.error(
                             HttpStatus.UNAUTHORIZED.value(), "Invalid Google ID token: " + e.getMessage(), null));
         } catch (Exception e) {
+            RetryLaterException.rethrowIfPresent(e);
             logger.error("Unexpected error during Google social login: ", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(APIResponse.error(
@@ -329,6 +331,7 @@ public class SocialAuthController {
                             "Failed to get access token from GitHub: " + e.getMessage(),
                             null));
         } catch (Exception e) {
+            RetryLaterException.rethrowIfPresent(e);
             logger.error("Unexpected error during GitHub login: ", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(APIResponse.error(
@@ -0,0 +1,63 @@
+package org.solace.scholar_ai.user_service.controller.stub;
+
+import io.swagger.v3.oas.annotations.Hidden;
+import java.util.List;
+import java.util.Map;
+import org.solace.scholar_ai.user_service.dto.auth.providers.GitHubEmailDTO;
+import org.solace.scholar_ai.user_service.dto.auth.providers.GitHubUserDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Stands in for GitHub's OAuth and user APIs so the GitHub sign-in flow can be
+ * load tested without GitHub. Only exists with the {@code github-stub}
+ * profile; point {@code spring.github.oauth-base-url} and
+ * {@code spring.github.api-base-url} at {@code <this service>/stub/github}.
+ *
+ * <p>Any code is accepted and identifies its user, so {@code code=alice} signs
+ * in as {@code alice@github-stub.local}. Each call waits
+ * {@code spring.app.github-stub.latency-ms} to mimic a remote provider.
+ */
+@Hidden
+@Profile("github-stub")
+@RestController
+@RequestMapping("/stub/github")
+public class GitHubStubController {
+    private static final String TOKEN_PREFIX = "stub-";
+
+    @Value("${spring.app.github-stub.latency-ms:50}")
+    private long latencyMs;
+
+    @PostMapping("/login/oauth/access_token")
+    public Map<String, String> accessToken(@RequestParam("code") String code) throws InterruptedException {
+        Thread.sleep(latencyMs);
+        return Map.of("access_token", TOKEN_PREFIX + code, "token_type", "bearer", "scope", "user:email");
+    }
+
+    @GetMapping("/user")
+    public GitHubUserDTO user(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization)
+            throws InterruptedException {
+        Thread.sleep(latencyMs);
+        String login = login(authorization);
+        // Private email, as for most GitHub users, so the email list is needed
+        return new GitHubUserDTO((long) login.hashCode() & Integer.MAX_VALUE, login, login, null);
+    }
+
+    @GetMapping("/user/emails")
+    public List<GitHubEmailDTO> emails(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization)
+            throws InterruptedException {
+        Thread.sleep(latencyMs);
+        return List.of(new GitHubEmailDTO(login(authorization) + "@github-stub.local", true, true));
+    }
+
+    private static String login(String authorization) {
+        return authorization.substring("Bearer ".length()).substring(TOKEN_PREFIX.length());
+    }
+}
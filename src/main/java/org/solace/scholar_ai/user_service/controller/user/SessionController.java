@@ -0,0 +1,135 @@
+package org.solace.scholar_ai.user_service.controller.user;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.solace.scholar_ai.user_service.dto.auth.SessionDTO;
+import org.solace.scholar_ai.user_service.dto.response.APIResponse;
+import org.solace.scholar_ai.user_service.security.JwtUtils;
+import org.solace.scholar_ai.user_service.security.VerifiedToken;
+import org.solace.scholar_ai.user_service.service.auth.RefreshTokenService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.WebUtils;
+
+@RestController
+@RequestMapping("/api/v1/users/me/sessions")
+@Tag(name = "Session Management", description = "List and revoke the devices the current user is signed in on")
+@RequiredArgsConstructor
+@Slf4j
+public class SessionController {
+
+    private final RefreshTokenService refreshTokenService;
+    private final JwtUtils jwtUtils;
+
+    @SecurityRequirement(name = "jwtAuth")
+    @Operation(
+            summary = "List Sessions",
+            description = "List the current user's active sessions, most recently used first")
+    @ApiResponses(
+            value = {
+                @ApiResponse(responseCode = "200", description = "Sessions retrieved successfully"),
+                @ApiResponse(responseCode = "401", description = "Unauthorized - invalid or missing token")
+            })
+    @GetMapping
+    public ResponseEntity<APIResponse<List<SessionDTO>>> listSessions(HttpServletRequest request, Principal principal) {
+        try {
+            String email = principal.getName();
+            List<SessionDTO> sessions = refreshTokenService.listSessions(email, currentSessionId(request, email));
+
+            return ResponseEntity.ok(
+                    APIResponse.success(HttpStatus.OK.value(), "Sessions retrieved successfully", sessions));
+        } catch (Exception e) {
+            log.error("Error listing sessions: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(APIResponse.error(HttpStatus.INTERNAL_SERVER_ERROR.value(), e.getMessage(), null));
+        }
+    }
+
+    @SecurityRequirement(name = "jwtAuth")
+    @Operation(summary = "Revoke Session", description = "Sign the current user out of one session")
+    @ApiResponses(
+            value = {
+                @ApiResponse(responseCode = "200", description = "Session revoked successfully"),
+                @ApiResponse(responseCode = "401", description = "Unauthorized - invalid or missing token")
+            })
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<APIResponse<String>> revokeSession(
+            @PathVariable String sessionId,
+            HttpServletRequest request,
+            HttpServletResponse response,
+            Principal principal) {
+        try {
+            String email = principal.getName();
+            log.info("Revoke session request for user: {}", email);
+
+            refreshTokenService.deleteRefreshToken(email, sessionId);
+            if (sessionId.equals(currentSessionId(request, email))) {
+                clearRefreshCookie(response);
+            }
+
+            return ResponseEntity.ok(APIResponse.success(HttpStatus.OK.value(), "Session revoked successfully", null));
+        } catch (Exception e) {
+            log.error("Error revoking session: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(APIResponse.error(HttpStatus.INTERNAL_SERVER_ERROR.value(), e.getMessage(), null));
+        }
+    }
+
+    @SecurityRequirement(name = "jwtAuth")
+    @Operation(summary = "Revoke All Sessions", description = "Sign the current user out of every session")
+    @ApiResponses(
+            value = {
+                @ApiResponse(responseCode = "200", description = "All sessions revoked successfully"),
+                @ApiResponse(responseCode = "401", description = "Unauthorized - invalid or missing token")
+            })
+    @DeleteMapping
+    public ResponseEntity<APIResponse<String>> revokeAllSessions(HttpServletResponse response, Principal principal) {
+        try {
+            String email = principal.getName();
+            log.info("Revoke all sessions request for user: {}", email);
+
+            refreshTokenService.deleteAllRefreshTokens(email);
+            clearRefreshCookie(response);
+
+            return ResponseEntity.ok(
+                    APIResponse.success(HttpStatus.OK.value(), "All sessions revoked successfully", null));
+        } catch (Exception e) {
+            log.error("Error revoking sessions: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(APIResponse.error(HttpStatus.INTERNAL_SERVER_ERROR.value(), e.getMessage(), null));
+        }
+    }
+
+    // The caller's session is the one its refresh token cookie belongs to
+    private String currentSessionId(HttpServletRequest request, String email) {
+        Cookie cookie = WebUtils.getCookie(request, "refreshToken");
+        VerifiedToken refreshToken = cookie != null ? jwtUtils.verifyToken(cookie.getValue()) : null;
+        return refreshToken != null && email.equals(refreshToken.subject()) ? refreshToken.sessionId() : null;
+    }
+
+    private void clearRefreshCookie(HttpServletResponse response) {
+        ResponseCookie clearCookie = ResponseCookie.from("refreshToken", "")
+                .httpOnly(false) // Allow JavaScript access for debugging
+                .secure(false) // Allow over plain HTTP for development
+                .sameSite("None") // Important: cross-origin cookie
+                .path("/") // Send for all paths
+                .maxAge(Duration.ofSeconds(0)) // Expire immediately
+                .build();
+
+        response.addHeader(HttpHeaders.SET_COOKIE, clearCookie.toString());
+    }
+}
@@ -0,0 +1,20 @@
+package org.solace.scholar_ai.user_service.dto.auth;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionDTO {
+
+    private String sessionId;
+    private String deviceName;
+    private Instant createdAt;
+    private Instant lastSeenAt;
+    private boolean current;
+}
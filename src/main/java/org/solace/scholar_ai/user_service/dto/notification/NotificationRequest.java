@@ -26,14 +26,56 @@ public class NotificationRequest {
     // Optional: used by notification-service to persist and for frontend queries
     private java.util.UUID userId;
 
+    /**
+     * The queue a notification travels on. Codes the user is waiting for go
+     * on their own lane, so a burst of welcome emails or cross-service
+     * notifications cannot hold them up.
+     */
+    public enum Lane {
+        PRIORITY,
+        BULK
+    }
+
     public enum NotificationType {
-        WELCOME_EMAIL,
-        PASSWORD_RESET,
-        EMAIL_VERIFICATION,
-        ACCOUNT_UPDATE,
-        WEB_SEARCH_COMPLETED,
-        SUMMARIZATION_COMPLETED,
-        PROJECT_DELETED,
-        GAP_ANALYSIS_COMPLETED
+        WELCOME_EMAIL(Lane.BULK, 2),
+        PASSWORD_RESET(Lane.PRIORITY, 9),
+        EMAIL_VERIFICATION(Lane.PRIORITY, 9),
+        ACCOUNT_UPDATE(Lane.BULK, 5),
+        WEB_SEARCH_COMPLETED(Lane.BULK, 1),
+        SUMMARIZATION_COMPLETED(Lane.BULK, 1),
+        PROJECT_DELETED(Lane.BULK, 1),
+        GAP_ANALYSIS_COMPLETED(Lane.BULK, 1);
+
+        private final Lane lane;
+        private final int priority;
+
+        NotificationType(Lane lane, int priority) {
+            this.lane = lane;
+            this.priority = priority;
+        }
+
+        public Lane lane() {
+            return lane;
+        }
+
+        /**
+         * Message priority within the lane, 0 (lowest) to 9.
+         */
+        public int priority() {
+            return priority;
+        }
+
+        /**
+         * @return The type with this name, or null for types this service
+         *         does not know, which other services may send.
+         */
+        public static NotificationType fromName(String name) {
+            for (NotificationType type : values()) {
+                if (type.name().equals(name)) {
+                    return type;
+                }
+            }
+            return null;
+        }
     }
 }
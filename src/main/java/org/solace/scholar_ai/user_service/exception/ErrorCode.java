@@ -19,6 +19,7 @@ public enum ErrorCode {
     FILE_TOO_LARGE("Please choose a smaller file that meets the size requirements."),
     // Authentication & Authorization Errors
     ACCESS_DENIED("Please ensure you have the necessary permissions or authenticate properly."),
+    TOO_MANY_REQUESTS("Please wait for the time given in the Retry-After header before trying again."),
     // Resource & Method Errors
     RESOURCE_NOT_FOUND("Please verify the requested resource exists and the URL is correct."),
     METHOD_NOT_ALLOWED("Please use one of the supported HTTP methods for this endpoint."),
@@ -28,7 +29,8 @@ public enum ErrorCode {
     EXTERNAL_API_ERROR("External API request failed. Please try again later or contact support."),
     DUPLICATE("Please ensure the resource you're trying to create does not already exist."),
     VALIDATION_ERROR("Please review the validation errors and correct your request."),
-    CONFIGURATION_ERROR("Please check the application configuration for any issues.");
+    CONFIGURATION_ERROR("Please check the application configuration for any issues."),
+    SERVICE_UNAVAILABLE("A backing service is temporarily unavailable. Please try again shortly.");
 
     private final String suggestion;
 
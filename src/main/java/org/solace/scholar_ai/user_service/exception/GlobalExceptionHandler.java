@@ -37,6 +37,27 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return buildErrorResponse(ex, ex.getMessage(), ex.getStatus(), ex.getErrorCode(), request);
     }
 
+    @ExceptionHandler(RetryLaterException.class)
+    public ResponseEntity<Object> handleRetryLaterException(RetryLaterException ex, WebRequest request) {
+        // Expected under load, so no stack trace
+        log.warn("Request rejected, retry later: {}", ex.getMessage());
+
+        APIErrorResponse errorResponse = APIErrorResponse.builder()
+                .timestamp(java.time.LocalDateTime.now())
+                .status(ex.getStatus().value())
+                .code(ex.getErrorCode().name())
+                .message(ex.getMessage())
+                .details(new ArrayList<>())
+                .suggestion(ex.getErrorCode().getSuggestion())
+                .build();
+
+        // Round up so clients never retry before the window has passed
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(ex.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(errorResponse);
+    }
+
     @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(
             MethodArgumentNotValidException ex, HttpHeaders headers, HttpStatusCode status, WebRequest request) {
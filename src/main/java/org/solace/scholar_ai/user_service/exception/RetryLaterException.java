@@ -0,0 +1,33 @@
+package org.solace.scholar_ai.user_service.exception;
+
+import java.time.Duration;
+import java.util.Objects;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception for requests turned away because the service is at capacity.
+ * The response carries a {@code Retry-After} header telling the client when
+ * to try again.
+ */
+@Getter
+public class RetryLaterException extends CustomException {
+    private final Duration retryAfter;
+
+    public RetryLaterException(String message, HttpStatus status, ErrorCode errorCode, Duration retryAfter) {
+        super(message, status, errorCode);
+        this.retryAfter = Objects.requireNonNull(retryAfter, "retryAfter must not be null");
+    }
+
+    /**
+     * Rethrows the exception if it is a {@code RetryLaterException}, for
+     * handlers that turn other failures into responses of their own, so
+     * {@link GlobalExceptionHandler} still renders it with its
+     * {@code Retry-After} header.
+     */
+    public static void rethrowIfPresent(Exception e) {
+        if (e instanceof RetryLaterException retryLater) {
+            throw retryLater;
+        }
+    }
+}
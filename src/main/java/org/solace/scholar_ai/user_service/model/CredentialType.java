@@ -0,0 +1,11 @@
+package org.solace.scholar_ai.user_service.model;
+
+/**
+ * How a user proves who they are. Only {@link #PASSWORD} accounts have a
+ * password hash; {@link #SOCIAL} accounts sign in through an identity
+ * provider and store an empty {@code encrypted_password}.
+ */
+public enum CredentialType {
+    PASSWORD,
+    SOCIAL
+}
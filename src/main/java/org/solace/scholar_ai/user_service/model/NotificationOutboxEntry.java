@@ -0,0 +1,51 @@
+package org.solace.scholar_ai.user_service.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+/**
+ * A notification waiting to be published, written in the same transaction as
+ * the change that caused it and deleted once the relay has sent it, or kept
+ * with {@code failedAt} set once the relay gives up on it.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "notification_outbox")
+public class NotificationOutboxEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id")
+    private UUID id;
+
+    @Column(name = "notification_type", nullable = false, length = 50)
+    private String notificationType;
+
+    @Column(name = "recipient_email")
+    private String recipientEmail;
+
+    // The NotificationRequest as JSON
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "available_at", nullable = false)
+    private Instant availableAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    // Set once the relay gives up on the entry; it is not sent after that
+    @Column(name = "failed_at")
+    private Instant failedAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private Instant createdAt;
+}
@@ -7,6 +7,7 @@ import java.util.List;
 import java.util.UUID;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -30,6 +31,16 @@ public class User {
     @Column(name = "role", nullable = false)
     private UserRole role;
 
+    // Social accounts have no password; encrypted_password is empty for them
+    @Enumerated(EnumType.STRING)
+    @ColumnDefault("'PASSWORD'")
+    @Column(name = "credential_type", nullable = false)
+    private CredentialType credentialType = CredentialType.PASSWORD;
+
+    // Moved only when the user sets a new password, not when its hash is upgraded
+    @Column(name = "password_changed_at")
+    private Instant passwordChangedAt;
+
     @Column(name = "is_email_confirmed")
     private boolean isEmailConfirmed;
 
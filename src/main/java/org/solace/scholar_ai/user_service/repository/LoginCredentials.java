@@ -0,0 +1,33 @@
+package org.solace.scholar_ai.user_service.repository;
+
+import java.util.UUID;
+import org.solace.scholar_ai.user_service.model.CredentialType;
+import org.solace.scholar_ai.user_service.model.UserRole;
+
+/**
+ * What a password login needs to know about a user, read in one query by
+ * {@link UserRepository#findLoginCredentialsByEmail(String)}.
+ *
+ * @param id                The user's id.
+ * @param email             The user's email.
+ * @param encryptedPassword The stored password hash, empty for social accounts.
+ * @param role              The user's role.
+ * @param emailConfirmed    Whether the user has confirmed their email.
+ * @param credentialType    How the user signs in.
+ */
+public record LoginCredentials(
+        UUID id,
+        String email,
+        String encryptedPassword,
+        UserRole role,
+        boolean emailConfirmed,
+        CredentialType credentialType) {
+
+    /**
+     * @return Whether the user signs in through an identity provider and so
+     *         has no password to check.
+     */
+    public boolean socialUser() {
+        return credentialType == CredentialType.SOCIAL;
+    }
+}
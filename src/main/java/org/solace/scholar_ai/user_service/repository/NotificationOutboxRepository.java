@@ -0,0 +1,54 @@
+package org.solace.scholar_ai.user_service.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.solace.scholar_ai.user_service.model.NotificationOutboxEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutboxEntry, UUID> {
+
+    /**
+     * Locks up to {@code limit} of the oldest entries that are due, skipping
+     * rows another relay already holds, so replicas drain the outbox side by
+     * side. Must run inside a transaction; the locks last until it ends.
+     */
+    @Query(
+            value =
+                    """
+                    SELECT * FROM notification_outbox
+                    WHERE available_at <= :now AND failed_at IS NULL
+                    ORDER BY available_at
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED
+                    """,
+            nativeQuery = true)
+    List<NotificationOutboxEntry> lockDueEntries(@Param("now") Instant now, @Param("limit") int limit);
+
+    /**
+     * Records a failed publish attempt: when to try again, or, with
+     * {@code failedAt} set, that the entry has been given up on.
+     */
+    @Modifying
+    @Query(
+            """
+            UPDATE NotificationOutboxEntry e
+            SET e.attempts = :attempts, e.availableAt = :availableAt, e.failedAt = :failedAt, e.lastError = :lastError
+            WHERE e.id = :id
+            """)
+    void recordFailedAttempt(
+            @Param("id") UUID id,
+            @Param("attempts") int attempts,
+            @Param("availableAt") Instant availableAt,
+            @Param("failedAt") Instant failedAt,
+            @Param("lastError") String lastError);
+
+    // Hands claimed entries that were never tried back to the relay
+    @Modifying
+    @Query("UPDATE NotificationOutboxEntry e SET e.availableAt = :availableAt WHERE e.id IN :ids")
+    void release(@Param("ids") Collection<UUID> ids, @Param("availableAt") Instant availableAt);
+}
@@ -5,14 +5,89 @@ import java.util.UUID;
 import org.solace.scholar_ai.user_service.model.User;
 import org.solace.scholar_ai.user_service.model.UserRole;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
 
+    // Login reads the hash and credential type in one round trip on the email index
+    @Query(
+            """
+            SELECT new org.solace.scholar_ai.user_service.repository.LoginCredentials(
+                u.id, u.email, u.encryptedPassword, u.role, u.isEmailConfirmed, u.credentialType)
+            FROM User u WHERE u.email = :email
+            """)
+    Optional<LoginCredentials> findLoginCredentialsByEmail(@Param("email") String email);
+
+    // Social sign-in resolves the account and every linked provider in one round trip
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.identityProviders WHERE u.email = :email")
+    Optional<User> findWithIdentityProvidersByEmail(@Param("email") String email);
+
+    /**
+     * Creates a social account together with its provider link and an empty
+     * profile in a single statement. The email's unique constraint arbitrates
+     * concurrent first logins: the loser inserts nothing and gets no id back,
+     * and should re-read the account the winner created. Social accounts
+     * have no password, so nothing is hashed.
+     *
+     * <p>PostgreSQL only (data-modifying CTE, {@code ON CONFLICT}).
+     *
+     * @return The new user's id, or empty if the email was already taken.
+     */
+    @Transactional
+    @Query(
+            value =
+                    """
+                    WITH new_user AS (
+                        INSERT INTO users (id, email, encrypted_password, credential_type, role, is_email_confirmed, created_at, updated_at)
+                        VALUES (gen_random_uuid(), :email, '', 'SOCIAL', 'USER', TRUE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+                        ON CONFLICT (email) DO NOTHING
+                        RETURNING id
+                    ), new_identity_provider AS (
+                        INSERT INTO user_identity_providers (id, user_id, provider, provider_user_id, created_at, updated_at)
+                        SELECT gen_random_uuid(), id, :provider, :providerUserId, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+                        FROM new_user
+                    ), new_profile AS (
+                        INSERT INTO user_profiles (id, user_id, created_at, updated_at)
+                        SELECT gen_random_uuid(), id, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+                        FROM new_user
+                    )
+                    SELECT id FROM new_user
+                    """,
+            nativeQuery = true)
+    Optional<UUID> insertSocialUser(
+            @Param("email") String email,
+            @Param("provider") String provider,
+            @Param("providerUserId") String providerUserId);
+
+    /**
+     * Marks accounts that sign in through a provider but still carry the
+     * {@code PASSWORD} credential type, and drops the throwaway hash they were
+     * created with. Those are accounts created before the credential type
+     * existed, given the column default when it was added. A password account
+     * never gains a provider, so this touches nothing once they are all
+     * marked.
+     *
+     * @return The number of accounts marked.
+     */
+    @Modifying
+    @Transactional
+    @Query(
+            """
+            UPDATE User u
+            SET u.credentialType = org.solace.scholar_ai.user_service.model.CredentialType.SOCIAL,
+                u.encryptedPassword = ''
+            WHERE u.credentialType <> org.solace.scholar_ai.user_service.model.CredentialType.SOCIAL
+            AND EXISTS (SELECT 1 FROM UserIdentityProvider p WHERE p.user = u)
+            """)
+    int markLegacySocialAccounts();
+
     @Query("SELECT u FROM User u LEFT JOIN FETCH u.profile WHERE u.id = :id")
     Optional<User> findWithProfileById(UUID id);
-    
+
     // Count users by role
     long countByRole(UserRole role);
 }
@@ -0,0 +1,253 @@
+package org.solace.scholar_ai.user_service.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.solace.scholar_ai.user_service.config.RedisCircuitBreaker;
+import org.solace.scholar_ai.user_service.exception.ErrorCode;
+import org.solace.scholar_ai.user_service.exception.RetryLaterException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Token-bucket rate limiter for the unauthenticated auth endpoints, which
+ * are the most expensive ones to serve (password hashing, outgoing email).
+ * Each request takes a token from a bucket for its client IP and one for the
+ * email it names, both per route; the buckets live in Redis so the limits
+ * hold across replicas, and are checked and drained in one Lua call.
+ *
+ * <p>When a bucket runs dry this replica remembers until when, and turns away
+ * further requests for that IP or email without asking Redis. While Redis is
+ * unavailable every replica enforces the limits on its own.
+ *
+ * <p>Behind a proxy the client IP is only right if
+ * {@code server.forward-headers-strategy} lets Spring read it from
+ * {@code X-Forwarded-For}.
+ */
+@Component
+public class AuthRateLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(AuthRateLimiter.class);
+    private static final String KEY_PREFIX = "rate_limit:";
+    private static final int LOCAL_MAX_KEYS = 100_000;
+
+    // KEYS: buckets. ARGV: now, then capacity and ms per token for each bucket.
+    // Takes a token from every bucket or from none. Returns {0, 0}, or the
+    // 1-based index of a bucket that ran dry and the ms until it has a token.
+    private static final String TAKE_LUA =
+            """
+            local now = tonumber(ARGV[1])
+            local remaining = {}
+            for i, key in ipairs(KEYS) do
+              local capacity = tonumber(ARGV[2 * i])
+              local interval = tonumber(ARGV[2 * i + 1])
+              local state = redis.call('HMGET', key, 'tokens', 'ts')
+              local tokens = tonumber(state[1]) or capacity
+              local elapsed = math.max(0, now - (tonumber(state[2]) or now))
+              tokens = math.min(capacity, tokens + elapsed / interval)
+              if tokens < 1 then
+                return {i, math.ceil((1 - tokens) * interval)}
+              end
+              remaining[i] = tokens - 1
+            end
+            for i, key in ipairs(KEYS) do
+              redis.call('HSET', key, 'tokens', tostring(remaining[i]), 'ts', ARGV[1])
+              redis.call('PEXPIRE', key, math.ceil(tonumber(ARGV[2 * i]) * tonumber(ARGV[2 * i + 1])))
+            end
+            return {0, 0}
+            """;
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final RedisScript<List<Long>> TAKE = (RedisScript) new DefaultRedisScript<>(TAKE_LUA, List.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisCircuitBreaker redisCircuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Map<RateLimitedRoute, Limit> perIpLimits = new EnumMap<>(RateLimitedRoute.class);
+    private final Map<RateLimitedRoute, Limit> perEmailLimits = new EnumMap<>(RateLimitedRoute.class);
+
+    // Bucket key to the epoch ms before which it has no token
+    private final Cache<String, Long> blockedUntil;
+    private final Cache<String, LocalBucket> localBuckets;
+
+    /**
+     * A bucket holding {@code capacity} tokens that refills one token every
+     * {@code msPerToken}.
+     */
+    record Limit(int capacity, long msPerToken) {
+
+        /**
+         * @param spec {@code <requests>/<period>}, e.g. {@code 5/10m}.
+         */
+        static Limit parse(String spec) {
+            String[] parts = spec.trim().split("/", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Rate limit must look like <requests>/<period>: " + spec);
+            }
+            int capacity = Integer.parseInt(parts[0].trim());
+            Duration period = DurationStyle.detectAndParse(parts[1].trim());
+            if (capacity < 1 || period.isNegative() || period.isZero()) {
+                throw new IllegalArgumentException("Rate limit must allow at least one request per period: " + spec);
+            }
+            return new Limit(capacity, Math.max(1, period.toMillis() / capacity));
+        }
+    }
+
+    private record Bucket(String scope, String key, Limit limit) {}
+
+    public AuthRateLimiter(
+            RedisTemplate<String, String> redisTemplate,
+            RedisCircuitBreaker redisCircuitBreaker,
+            MeterRegistry meterRegistry,
+            Environment environment,
+            @Value("${spring.app.rate-limit.enabled:true}") boolean enabled) {
+        this.redisTemplate = redisTemplate;
+        this.redisCircuitBreaker = redisCircuitBreaker;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        for (RateLimitedRoute route : RateLimitedRoute.values()) {
+            String prefix = "spring.app.rate-limit." + route.key();
+            perIpLimits.put(route, Limit.parse(environment.getProperty(prefix + ".per-ip", route.defaultPerIp())));
+            perEmailLimits.put(
+                    route, Limit.parse(environment.getProperty(prefix + ".per-email", route.defaultPerEmail())));
+        }
+        this.blockedUntil = Caffeine.newBuilder()
+                .maximumSize(LOCAL_MAX_KEYS)
+                .expireAfterWrite(Duration.ofHours(1))
+                .build();
+        this.localBuckets = Caffeine.newBuilder()
+                .maximumSize(LOCAL_MAX_KEYS)
+                .expireAfterAccess(Duration.ofHours(1))
+                .build();
+    }
+
+    /**
+     * Takes a token for the request, or turns it away.
+     *
+     * @param route   The endpoint being called.
+     * @param request The request, for the client IP.
+     * @param email   The email the request is about; may be blank, in which
+     *                case only the IP is limited.
+     * @throws RetryLaterException With status 429 and the time until the
+     *                             request would be allowed.
+     */
+    public void check(RateLimitedRoute route, HttpServletRequest request, String email) {
+        if (!enabled) {
+            return;
+        }
+
+        List<Bucket> buckets = new ArrayList<>(2);
+        buckets.add(new Bucket("ip", bucketKey(route, "ip", request.getRemoteAddr()), perIpLimits.get(route)));
+        if (StringUtils.hasText(email)) {
+            buckets.add(new Bucket(
+                    "email",
+                    bucketKey(route, "email", email.trim().toLowerCase(Locale.ROOT)),
+                    perEmailLimits.get(route)));
+        }
+
+        long now = System.currentTimeMillis();
+        for (Bucket bucket : buckets) {
+            Long until = blockedUntil.getIfPresent(bucket.key());
+            if (until != null && until > now) {
+                throw rejected(route, bucket, "local", until - now);
+            }
+        }
+
+        List<Long> result =
+                redisCircuitBreaker.execute(() -> takeInRedis(buckets, now), () -> takeLocally(buckets, now));
+        int dryBucket = result.get(0).intValue();
+        if (dryBucket > 0) {
+            Bucket bucket = buckets.get(dryBucket - 1);
+            long waitMs = result.get(1);
+            blockedUntil.put(bucket.key(), now + waitMs);
+            throw rejected(route, bucket, "shared", waitMs);
+        }
+    }
+
+    private List<Long> takeInRedis(List<Bucket> buckets, long now) {
+        List<String> keys = new ArrayList<>(buckets.size());
+        List<String> args = new ArrayList<>(1 + 2 * buckets.size());
+        args.add(String.valueOf(now));
+        for (Bucket bucket : buckets) {
+            keys.add(bucket.key());
+            args.add(String.valueOf(bucket.limit().capacity()));
+            args.add(String.valueOf(bucket.limit().msPerToken()));
+        }
+        return redisTemplate.execute(TAKE, keys, args.toArray());
+    }
+
+    // Same rules as TAKE_LUA, but only for this replica's requests
+    private List<Long> takeLocally(List<Bucket> buckets, long now) {
+        List<LocalBucket> locals = buckets.stream()
+                .map(bucket -> localBuckets.get(bucket.key(), k -> new LocalBucket(bucket.limit())))
+                .toList();
+        for (int i = 0; i < locals.size(); i++) {
+            long waitMs = locals.get(i).waitMs(now);
+            if (waitMs > 0) {
+                return List.of((long) i + 1, waitMs);
+            }
+        }
+        locals.forEach(local -> local.take(now));
+        return List.of(0L, 0L);
+    }
+
+    private RetryLaterException rejected(RateLimitedRoute route, Bucket bucket, String source, long waitMs) {
+        meterRegistry
+                .counter("auth.rate-limit.rejected", "route", route.key(), "scope", bucket.scope(), "source", source)
+                .increment();
+        logger.debug("Rate limited {} by {} for {} ms", route.key(), bucket.scope(), waitMs);
+        return new RetryLaterException(
+                "Too many requests. Please try again later.",
+                HttpStatus.TOO_MANY_REQUESTS,
+                ErrorCode.TOO_MANY_REQUESTS,
+                Duration.ofMillis(waitMs));
+    }
+
+    private static String bucketKey(RateLimitedRoute route, String scope, String value) {
+        return KEY_PREFIX + route.key() + ":" + scope + ":" + value;
+    }
+
+    private static final class LocalBucket {
+        private final Limit limit;
+        private double tokens;
+        private long refilledAt;
+
+        LocalBucket(Limit limit) {
+            this.limit = limit;
+            this.tokens = limit.capacity();
+            this.refilledAt = System.currentTimeMillis();
+        }
+
+        synchronized long waitMs(long now) {
+            refill(now);
+            return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) * limit.msPerToken());
+        }
+
+        synchronized void take(long now) {
+            refill(now);
+            tokens = Math.max(0, tokens - 1);
+        }
+
+        private void refill(long now) {
+            long elapsed = Math.max(0, now - refilledAt);
+            tokens = Math.min(limit.capacity(), tokens + (double) elapsed / limit.msPerToken());
+            refilledAt = now;
+        }
+    }
+}
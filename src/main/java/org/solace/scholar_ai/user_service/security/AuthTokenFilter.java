@@ -2,20 +2,25 @@ package org.solace.scholar_ai.user_service.security;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.solace.scholar_ai.user_service.service.auth.PrincipalSnapshot;
+import org.solace.scholar_ai.user_service.service.auth.RefreshTokenService;
+import org.solace.scholar_ai.user_service.service.auth.SessionPresenceRegistry;
 import org.solace.scholar_ai.user_service.service.auth.UserLoadingService;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
 
 /**
  * Filter for authenticating users based on JWT tokens in the Authorization
@@ -32,7 +37,14 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     private final JwtUtils jwtUtils;
     private final UserLoadingService userLoadingService;
     private static final Logger log = LoggerFactory.getLogger(AuthTokenFilter.class);
-    private final RedisTemplate<String, String> redisTemplate;
+    private final RefreshTokenService refreshTokenService;
+    private final SessionPresenceRegistry sessionPresenceRegistry;
+    private final SilentRefreshCache silentRefreshCache;
+
+    // When enabled, access tokens carrying uid/role/email_verified/social claims are
+    // trusted as-is and the user is not reloaded from the database
+    @Value("${spring.app.jwt.claims-principal.enabled:false}")
+    private boolean claimsPrincipalEnabled;
 
     /**
      * Performs the filtering logic for each request.
@@ -62,36 +74,26 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             String accessToken = parseJwt(request);
             log.info("Access token found: {}", accessToken != null ? "YES" : "NO");
             if (accessToken != null) {
-                // First check if the token is valid
-                boolean isValidToken = jwtUtils.validateJwtToken(accessToken);
-                log.info("Token validation result: {}", isValidToken);
+                // Verify the token once; the parsed claims are reused below
+                VerifiedToken verifiedToken = jwtUtils.verifyToken(accessToken);
+                log.info("Token validation result: {}", verifiedToken != null);
 
-                if (isValidToken) {
+                if (verifiedToken != null) {
                     // Token is valid, proceed with normal authentication
-                    String username = jwtUtils.getUserNameFromJwtToken(accessToken);
+                    String username = verifiedToken.subject();
                     log.debug("Username: {}", username);
 
-                    // Check if refresh token still exists in Redis
-                    String redisKey = "refresh_token:" + username;
-                    try {
-                        Boolean hasKey = redisTemplate.hasKey(redisKey);
-                        if (hasKey == null || !hasKey) {
-                            log.warn(
-                                    "Access token permitted despite missing refresh token for user '{}' in Redis - token is still valid",
-                                    username);
-                            // Continue with authentication instead of failing
-                            // This allows the system to work even if Redis is down or refresh token expired
-                            // The JWT token itself is still valid and sufficient for authentication
-                        }
-                    } catch (Exception redisException) {
+                    // Session presence is answered from the local view, not Redis
+                    if (!sessionPresenceRegistry.isPresent(username)) {
                         log.warn(
-                                "Redis connection error for user '{}', proceeding with JWT-only authentication: {}",
-                                username,
-                                redisException.getMessage());
-                        // Continue with authentication if Redis is unavailable
+                                "Access token permitted despite missing refresh token for user '{}' - token is still valid",
+                                username);
+                        // Continue with authentication; the JWT itself is sufficient
                     }
 
-                    UserDetails userDetails = userLoadingService.loadUserByUsername(username);
+                    UserDetails userDetails = claimsPrincipalEnabled && verifiedToken.hasPrincipalClaims()
+                            ? buildClaimsPrincipal(verifiedToken)
+                            : userLoadingService.loadPrincipalByUsername(username);
                     UsernamePasswordAuthenticationToken authentication =
                             new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                     log.debug("Roles from JWT: {}", userDetails.getAuthorities());
@@ -103,54 +105,26 @@ public class AuthTokenFilter extends OncePerRequestFilter {
                     log.info("JWT token is invalid/expired, attempting to refresh using refresh token");
 
                     // Extract refresh token from cookies
-                    String refreshToken = null;
-                    if (request.getCookies() != null) {
-                        for (jakarta.servlet.http.Cookie cookie : request.getCookies()) {
-                            if ("refreshToken".equals(cookie.getName())) {
-                                refreshToken = cookie.getValue();
-                                log.info("Found refresh token in cookie");
-                                break;
-                            }
-                        }
-                    }
+                    Cookie refreshCookie = WebUtils.getCookie(request, "refreshToken");
+                    String refreshToken = refreshCookie != null ? refreshCookie.getValue() : null;
 
                     if (refreshToken != null) {
                         try {
-                            // First validate the refresh token format and expiration
-                            if (!jwtUtils.validateJwtToken(refreshToken)) {
-                                log.warn("Refresh token is invalid or expired");
-                            } else {
-                                // Validate refresh token and get username
-                                String username = jwtUtils.getUserNameFromJwtToken(refreshToken);
-                                log.debug("Refresh token username: {}", username);
-
-                                // Check if refresh token exists in Redis
-                                String redisKey = "refresh_token:" + username;
-                                Boolean hasKey = redisTemplate.hasKey(redisKey);
-
-                                if (hasKey != null && hasKey) {
-                                    // Refresh token is valid, generate new access token
-                                    String newAccessToken = jwtUtils.generateAccessToken(username);
-                                    log.debug("Generated new access token for user: {}", username);
-
-                                    // Set the new access token in response header for frontend to use
-                                    response.setHeader("X-New-Access-Token", newAccessToken);
-
-                                    // Proceed with authentication using the username from refresh token
-                                    UserDetails userDetails = userLoadingService.loadUserByUsername(username);
-                                    UsernamePasswordAuthenticationToken authentication =
-                                            new UsernamePasswordAuthenticationToken(
-                                                    userDetails, null, userDetails.getAuthorities());
-                                    log.debug("Roles from refresh token: {}", userDetails.getAuthorities());
-
-                                    authentication.setDetails(
-                                            new WebAuthenticationDetailsSource().buildDetails(request));
-                                    SecurityContextHolder.getContext().setAuthentication(authentication);
-
-                                    log.info("Successfully refreshed token for user: {}", username);
-                                } else {
-                                    log.warn("Refresh token not found in Redis for user: {}", username);
-                                }
+                            // Repeated requests with the same refresh token reuse the first refresh
+                            SilentRefreshCache.SilentRefresh refreshed =
+                                    silentRefreshCache.get(refreshToken, () -> silentlyRefresh(refreshToken));
+                            if (refreshed != null) {
+                                // Set the new access token in response header for frontend to use
+                                response.setHeader("X-New-Access-Token", refreshed.accessToken());
+
+                                UserDetails userDetails = refreshed.principal();
+                                UsernamePasswordAuthenticationToken authentication =
+                                        new UsernamePasswordAuthenticationToken(
+                                                userDetails, null, userDetails.getAuthorities());
+                                log.debug("Roles from refresh token: {}", userDetails.getAuthorities());
+
+                                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                                SecurityContextHolder.getContext().setAuthentication(authentication);
                             }
                         } catch (Exception refreshException) {
                             log.warn("Failed to refresh token: {}", refreshException.getMessage());
@@ -167,6 +141,58 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Validates a refresh token against its session and mints a new access
+     * token for it.
+     *
+     * @param refreshToken The refresh token from the cookie.
+     * @return The refresh, or null if the refresh token is invalid or revoked.
+     */
+    private SilentRefreshCache.SilentRefresh silentlyRefresh(String refreshToken) {
+        // First validate the refresh token format and expiration
+        VerifiedToken verifiedRefreshToken = jwtUtils.verifyToken(refreshToken);
+        if (verifiedRefreshToken == null) {
+            log.warn("Refresh token is invalid or expired");
+            return null;
+        }
+
+        String username = verifiedRefreshToken.subject();
+        log.debug("Refresh token username: {}", username);
+
+        // Check the refresh token is still the current one for its session
+        if (!refreshTokenService.isRefreshTokenValid(username, verifiedRefreshToken.sessionId(), refreshToken)) {
+            log.warn("Refresh token not found for user: {}", username);
+            return null;
+        }
+
+        // Refresh token is valid; mint an access token with the same claims as login
+        PrincipalSnapshot principal = userLoadingService.loadPrincipalSnapshot(username);
+        String newAccessToken = jwtUtils.generateAccessToken(
+                principal.email(),
+                principal.userId(),
+                principal.role(),
+                principal.emailConfirmed(),
+                principal.socialUser());
+        VerifiedToken verifiedAccessToken = jwtUtils.verifyToken(newAccessToken);
+
+        log.info("Successfully refreshed token for user: {}", username);
+        return new SilentRefreshCache.SilentRefresh(
+                newAccessToken, verifiedAccessToken.expiresAt(), principal.toUserDetails());
+    }
+
+    /**
+     * Builds the principal straight from the access token claims, mirroring the
+     * {@link UserDetails} that {@link UserLoadingService} would load.
+     *
+     * @param token A verified token carrying principal claims.
+     * @return The user details for the security context.
+     */
+    private UserDetails buildClaimsPrincipal(VerifiedToken token) {
+        return new PrincipalSnapshot(
+                        token.userId(), token.subject(), token.role(), token.emailConfirmed(), token.socialUser())
+                .toUserDetails();
+    }
+
     /**
      * Checks if the given URI is a public endpoint that doesn't require
      * authentication.
@@ -188,7 +214,8 @@ public class AuthTokenFilter extends OncePerRequestFilter {
                 || requestURI.equals("/api/v1/auth/reset-password")
                 || requestURI.startsWith("/api/v1/auth/google")
                 || requestURI.startsWith("/api/v1/auth/github")
-                || requestURI.startsWith("/health");
+                || requestURI.startsWith("/health")
+                || requestURI.equals("/.well-known/jwks.json");
     }
 
     /**
@@ -0,0 +1,29 @@
+package org.solace.scholar_ai.user_service.security;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Reads Google signing keys from a local JWK Set file, so ID tokens can be
+ * verified without reaching Google, e.g. against a stub identity provider in
+ * load tests. The file is re-read every {@code reloadInterval}.
+ */
+public class FileGoogleSigningKeySource implements GoogleSigningKeySource {
+
+    private final Path path;
+    private final Duration reloadInterval;
+
+    public FileGoogleSigningKeySource(Path path, Duration reloadInterval) {
+        this.path = path;
+        this.reloadInterval = reloadInterval;
+    }
+
+    @Override
+    public Keys load() throws IOException {
+        return GoogleSigningKeySource.parse(
+                Files.readString(path), Instant.now().plus(reloadInterval));
+    }
+}
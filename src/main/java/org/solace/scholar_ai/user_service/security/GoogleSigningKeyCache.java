@@ -0,0 +1,147 @@
+package org.solace.scholar_ai.user_service.security;
+
+import jakarta.annotation.PostConstruct;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.solace.scholar_ai.user_service.exception.ErrorCode;
+import org.solace.scholar_ai.user_service.exception.RetryLaterException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds Google's ID-token signing keys in memory and refreshes them in the
+ * background shortly before they expire, so verifying a token never waits on
+ * an outbound call in the normal case.
+ *
+ * <p>A request only fetches keys itself when none are held yet, or when a
+ * token names a key id that is not in the set (Google rotated its keys).
+ * Concurrent callers share one in-flight fetch, and unknown key ids trigger a
+ * fetch at most once per {@link #MIN_FORCED_REFRESH_INTERVAL}. If a refresh
+ * fails the previous keys stay in use, since Google publishes new keys well
+ * before it stops signing with the old ones.
+ */
+@Component
+public class GoogleSigningKeyCache {
+    private static final Logger logger = LoggerFactory.getLogger(GoogleSigningKeyCache.class);
+    static final Duration MIN_FORCED_REFRESH_INTERVAL = Duration.ofSeconds(30);
+
+    private final GoogleSigningKeySource source;
+    private final Duration refreshAhead;
+
+    private final AtomicReference<CompletableFuture<GoogleSigningKeySource.Keys>> inFlight = new AtomicReference<>();
+    private volatile GoogleSigningKeySource.Keys current;
+    private volatile Instant lastForcedRefresh = Instant.EPOCH;
+
+    public GoogleSigningKeyCache(
+            GoogleSigningKeySource source,
+            @Value("${spring.app.google.signing-keys.refresh-ahead-ms:600000}") long refreshAheadMs) {
+        this.source = source;
+        this.refreshAhead = Duration.ofMillis(refreshAheadMs);
+    }
+
+    /**
+     * Fetches the keys at startup on a background thread, so the first Google
+     * login does not pay for it and an unreachable Google does not block
+     * startup.
+     */
+    @PostConstruct
+    void warmUp() {
+        CompletableFuture.runAsync(this::refreshIfStale);
+    }
+
+    /**
+     * Finds the public key for a token's {@code kid} header.
+     *
+     * @param keyId The key id.
+     * @return The key, or null if Google does not publish a key with that id.
+     * @throws RetryLaterException If no keys could be fetched at all.
+     */
+    public PublicKey publicKey(String keyId) {
+        GoogleSigningKeySource.Keys keys = current;
+        if (keys == null || keys.isExpired(Instant.now())) {
+            keys = awaitRefresh(keys);
+        }
+
+        PublicKey key = keys.keysById().get(keyId);
+        if (key == null && Instant.now().isAfter(lastForcedRefresh.plus(MIN_FORCED_REFRESH_INTERVAL))) {
+            lastForcedRefresh = Instant.now();
+            logger.info("Google ID token signed with unknown key id {}; refreshing signing keys", keyId);
+            key = awaitRefresh(keys).keysById().get(keyId);
+        }
+        return key;
+    }
+
+    /**
+     * Refreshes the keys once they are within the refresh-ahead window of
+     * expiring. Runs on the scheduler so the fetch happens off the request path.
+     */
+    @Scheduled(fixedDelayString = "${spring.app.google.signing-keys.refresh-check-interval-ms:60000}")
+    void refreshIfStale() {
+        GoogleSigningKeySource.Keys keys = current;
+        if (keys != null && !keys.isExpired(Instant.now().plus(refreshAhead))) {
+            return;
+        }
+        try {
+            refresh().join();
+        } catch (CompletionException e) {
+            logger.warn(
+                    "Background refresh of Google signing keys failed: {}",
+                    e.getCause().getMessage());
+        }
+    }
+
+    // Waits for a refresh, falling back to the keys already held if it fails
+    private GoogleSigningKeySource.Keys awaitRefresh(GoogleSigningKeySource.Keys fallback) {
+        try {
+            return refresh().join();
+        } catch (CompletionException e) {
+            if (fallback != null) {
+                logger.warn(
+                        "Refreshing Google signing keys failed, keeping the previous set: {}",
+                        e.getCause().getMessage());
+                return fallback;
+            }
+            logger.error("Google signing keys are unavailable: {}", e.getCause().getMessage());
+            throw new RetryLaterException(
+                    "Google sign-in is temporarily unavailable. Please try again shortly.",
+                    HttpStatus.SERVICE_UNAVAILABLE,
+                    ErrorCode.SERVICE_UNAVAILABLE,
+                    Duration.ofSeconds(5));
+        }
+    }
+
+    /**
+     * Starts a fetch unless one is already running, in which case the caller
+     * shares it. The fetch runs on the thread that starts it.
+     */
+    private CompletableFuture<GoogleSigningKeySource.Keys> refresh() {
+        CompletableFuture<GoogleSigningKeySource.Keys> mine = new CompletableFuture<>();
+        CompletableFuture<GoogleSigningKeySource.Keys> running = inFlight.compareAndExchange(null, mine);
+        if (running != null) {
+            return running;
+        }
+
+        try {
+            GoogleSigningKeySource.Keys keys = source.load();
+            current = keys;
+            logger.debug(
+                    "Loaded {} Google signing key(s), valid until {}",
+                    keys.keysById().size(),
+                    keys.expiresAt());
+            mine.complete(keys);
+        } catch (Exception e) {
+            mine.completeExceptionally(e);
+        } finally {
+            inFlight.set(null);
+        }
+        return mine;
+    }
+}
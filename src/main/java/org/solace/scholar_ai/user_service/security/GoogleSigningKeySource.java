@@ -0,0 +1,72 @@
+package org.solace.scholar_ai.user_service.security;
+
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import java.io.IOException;
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Where the public keys that sign Google ID tokens come from: Google's JWKS
+ * endpoint in production ({@link HttpGoogleSigningKeySource}), a local file
+ * ({@link FileGoogleSigningKeySource}) or a stub to verify tokens offline in
+ * tests and benchmarks.
+ */
+@FunctionalInterface
+public interface GoogleSigningKeySource {
+
+    /**
+     * Fetches the current key set. Called off the request path by
+     * {@link GoogleSigningKeyCache}, except when no usable keys are held yet.
+     *
+     * @return The keys and how long they may be cached.
+     * @throws IOException If the keys cannot be fetched or parsed.
+     */
+    Keys load() throws IOException;
+
+    /**
+     * A fetched key set.
+     *
+     * @param keysById  Public keys by their {@code kid}.
+     * @param expiresAt When the set should be fetched again.
+     */
+    record Keys(Map<String, PublicKey> keysById, Instant expiresAt) {
+
+        public boolean isExpired(Instant now) {
+            return !now.isBefore(expiresAt);
+        }
+    }
+
+    /**
+     * Parses a JWK Set document, skipping keys without an id or that are not
+     * public keys.
+     *
+     * @param json      The JWK Set document.
+     * @param expiresAt When the keys should be fetched again.
+     * @return The parsed keys.
+     */
+    static Keys parse(String json, Instant expiresAt) throws IOException {
+        JwkSet jwkSet;
+        try {
+            jwkSet = Jwks.setParser().build().parse(json);
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed Google JWK Set: " + e.getMessage(), e);
+        }
+
+        Map<String, PublicKey> keys = new LinkedHashMap<>();
+        for (Jwk<?> jwk : jwkSet.getKeys()) {
+            if (jwk instanceof PublicJwk<?> publicJwk && jwk.getId() != null) {
+                keys.put(jwk.getId(), publicJwk.toKey());
+            }
+        }
+        if (keys.isEmpty()) {
+            throw new IOException("Google JWK Set contains no usable keys");
+        }
+        return new Keys(Collections.unmodifiableMap(keys), expiresAt);
+    }
+}
@@ -1,47 +1,85 @@
 package org.solace.scholar_ai.user_service.security;
 
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
-import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
-import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
-import com.google.api.client.json.jackson2.JacksonFactory;
-import jakarta.annotation.PostConstruct;
-import java.util.Collections;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.UnsupportedJwtException;
+import java.security.Key;
+import java.security.PublicKey;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+/**
+ * Verifies Google ID tokens against signing keys held in memory by
+ * {@link GoogleSigningKeyCache}, checking the signature, issuer, audience and
+ * expiry the same way Google's own verifier does.
+ */
 @Component
 public class GoogleVerifierUtil {
+    private static final Logger logger = LoggerFactory.getLogger(GoogleVerifierUtil.class);
+    private static final Set<String> ISSUERS = Set.of("accounts.google.com", "https://accounts.google.com");
+    // Google's verifier allows the same skew
+    private static final long CLOCK_SKEW_SECONDS = 300;
 
-    @Value("${spring.google.client-id}")
-    private String clientId;
+    private final JwtParser parser;
 
-    private GoogleIdTokenVerifier verifier;
-
-    // Added for testability
-    public GoogleVerifierUtil(GoogleIdTokenVerifier verifier) {
-        this.verifier = verifier;
-    }
-
-    public GoogleVerifierUtil() {
-        // Default constructor for Spring
-    }
-
-    @PostConstruct
-    public void init() throws Exception {
-        if (this.verifier == null) {
-            this.verifier = new GoogleIdTokenVerifier.Builder(
-                            GoogleNetHttpTransport.newTrustedTransport(), JacksonFactory.getDefaultInstance())
-                    .setAudience(Collections.singletonList(clientId))
-                    .build();
-        }
+    public GoogleVerifierUtil(GoogleSigningKeyCache signingKeys, @Value("${spring.google.client-id}") String clientId) {
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(ProtectedHeader header) {
+                        PublicKey key = header.getKeyId() != null ? signingKeys.publicKey(header.getKeyId()) : null;
+                        if (key == null) {
+                            throw new UnsupportedJwtException("Unknown Google signing key id: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .requireAudience(clientId)
+                .clockSkewSeconds(CLOCK_SKEW_SECONDS)
+                .build();
     }
 
+    /**
+     * @param idTokenString The ID token from Google Sign-In.
+     * @return The token's payload, or null if the token is not a valid Google
+     *         ID token for this client.
+     * @throws org.solace.scholar_ai.user_service.exception.RetryLaterException
+     *         If Google's signing keys cannot be fetched.
+     */
     public GoogleIdToken.Payload verify(String idTokenString) {
+        Claims claims;
         try {
-            GoogleIdToken idToken = verifier.verify(idTokenString);
-            return (idToken != null) ? idToken.getPayload() : null;
-        } catch (Exception e) {
+            claims = parser.parseSignedClaims(idTokenString).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("Rejected Google ID token: {}", e.getMessage());
+            return null;
+        }
+        if (!ISSUERS.contains(claims.getIssuer())) {
+            logger.debug("Rejected Google ID token from issuer: {}", claims.getIssuer());
             return null;
         }
+        return toPayload(claims);
+    }
+
+    private static GoogleIdToken.Payload toPayload(Claims claims) {
+        GoogleIdToken.Payload payload = new GoogleIdToken.Payload();
+        payload.setIssuer(claims.getIssuer());
+        payload.setSubject(claims.getSubject());
+        payload.setAudience(List.copyOf(claims.getAudience()));
+        payload.setEmail(claims.get("email", String.class));
+        // Sent as a boolean, but as a string in some older tokens
+        Object emailVerified = claims.get("email_verified");
+        payload.setEmailVerified(emailVerified != null ? Boolean.valueOf(emailVerified.toString()) : null);
+        payload.set("name", claims.get("name", String.class));
+        return payload;
     }
 }
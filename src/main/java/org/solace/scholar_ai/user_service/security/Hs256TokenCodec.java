@@ -0,0 +1,317 @@
+package org.solace.scholar_ai.user_service.security;
+
+import io.jsonwebtoken.security.SignatureException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import org.solace.scholar_ai.user_service.model.UserRole;
+
+/**
+ * Specialised HS256 codec for the fixed claim set {@link JwtUtils} emits.
+ *
+ * <p>It produces byte-for-byte the same tokens as the jjwt builder: the header
+ * is always {@code {"alg":"HS256"}} and claims are written in the order
+ * {@code sub, jti, sid, uid, role, email_verified, social, iat, exp}. The header is pre-encoded,
+ * each thread reuses its own {@link Mac}, and claims are read with a flat
+ * scanner instead of a general JSON tree.
+ *
+ * <p>Anything outside that shape (other headers, unknown claims, escaped
+ * strings) is not handled here: {@link #encode} and {@link #decode} return
+ * null and the caller falls back to jjwt.
+ */
+public class Hs256TokenCodec {
+
+    private static final Base64.Encoder BASE64_URL_ENCODER =
+            Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64_URL_DECODER = Base64.getUrlDecoder();
+    private static final String ENCODED_HEADER = base64Url("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8));
+
+    private final ThreadLocal<Mac> macs;
+
+    public Hs256TokenCodec(SecretKey key) {
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 is not available", e);
+            }
+        });
+        // Fail fast on an unusable key rather than on the first request
+        macs.get();
+    }
+
+    /**
+     * Signs a token with the given claims.
+     *
+     * @param subject        The subject (the user's email).
+     * @param tokenId        The token id claim, or null to omit it.
+     * @param sessionId      The session id claim, or null to omit it.
+     * @param userId         The user id claim, or null to omit it.
+     * @param role           The role claim, or null to omit it.
+     * @param emailConfirmed The email confirmation claim, or null to omit it.
+     * @param socialUser     The social account claim, or null to omit it.
+     * @param issuedAt       Issue time, truncated to seconds like jjwt.
+     * @param expiresAt      Expiry time, truncated to seconds like jjwt.
+     * @return The compact token, or null if a string claim needs JSON escaping.
+     */
+    public String encode(
+            String subject,
+            String tokenId,
+            String sessionId,
+            UUID userId,
+            UserRole role,
+            Boolean emailConfirmed,
+            Boolean socialUser,
+            Instant issuedAt,
+            Instant expiresAt) {
+        if (!isPlainJsonString(subject)
+                || (tokenId != null && !isPlainJsonString(tokenId))
+                || (sessionId != null && !isPlainJsonString(sessionId))) {
+            return null;
+        }
+
+        StringBuilder payload =
+                new StringBuilder(160).append("{\"sub\":\"").append(subject).append('"');
+        if (tokenId != null) {
+            payload.append(",\"jti\":\"").append(tokenId).append('"');
+        }
+        if (sessionId != null) {
+            payload.append(",\"sid\":\"").append(sessionId).append('"');
+        }
+        if (userId != null) {
+            payload.append(",\"uid\":\"").append(userId).append('"');
+        }
+        if (role != null) {
+            payload.append(",\"role\":\"").append(role.name()).append('"');
+        }
+        if (emailConfirmed != null) {
+            payload.append(",\"email_verified\":").append(emailConfirmed.booleanValue());
+        }
+        if (socialUser != null) {
+            payload.append(",\"social\":").append(socialUser.booleanValue());
+        }
+        payload.append(",\"iat\":")
+                .append(issuedAt.getEpochSecond())
+                .append(",\"exp\":")
+                .append(expiresAt.getEpochSecond())
+                .append('}');
+
+        String signingInput =
+                ENCODED_HEADER + '.' + base64Url(payload.toString().getBytes(StandardCharsets.UTF_8));
+        return signingInput + '.' + base64Url(sign(signingInput));
+    }
+
+    /**
+     * Verifies and parses a token. Expiry is not checked here.
+     *
+     * @param token The compact token.
+     * @return The parsed token, or null if it is not in the shape this codec
+     *         emits and must be handled by jjwt instead.
+     * @throws SignatureException If the token is in the expected shape but its
+     *                            signature does not match.
+     */
+    public VerifiedToken decode(String token) {
+        int firstDot = token.indexOf('.');
+        int secondDot = token.indexOf('.', firstDot + 1);
+        if (firstDot != ENCODED_HEADER.length()
+                || secondDot < 0
+                || token.indexOf('.', secondDot + 1) >= 0
+                || !token.startsWith(ENCODED_HEADER)) {
+            return null;
+        }
+
+        byte[] expected = BASE64_URL_ENCODER.encode(sign(token.substring(0, secondDot)));
+        byte[] actual = token.substring(secondDot + 1).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            throw new SignatureException("JWT signature does not match locally computed signature.");
+        }
+
+        byte[] payload;
+        try {
+            payload = BASE64_URL_DECODER.decode(token.substring(firstDot + 1, secondDot));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return new ClaimsScanner(payload).scan();
+    }
+
+    private byte[] sign(String signingInput) {
+        Mac mac = macs.get();
+        return mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String base64Url(byte[] bytes) {
+        return BASE64_URL_ENCODER.encodeToString(bytes);
+    }
+
+    private static boolean isPlainJsonString(String value) {
+        if (value == null) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c == '"' || c == '\\') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Single-pass reader for a flat JSON object holding only the claims this
+     * codec writes. Returns null on anything unexpected.
+     */
+    private static final class ClaimsScanner {
+        private final byte[] json;
+        private int pos;
+
+        private String subject;
+        private String sessionId;
+        private UUID userId;
+        private UserRole role;
+        private Boolean emailConfirmed;
+        private Boolean socialUser;
+        private long issuedAt = -1;
+        private long expiresAt = -1;
+
+        ClaimsScanner(byte[] json) {
+            this.json = json;
+        }
+
+        VerifiedToken scan() {
+            try {
+                if (!consume('{')) {
+                    return null;
+                }
+                do {
+                    String name = readString();
+                    if (name == null || !consume(':') || !readValue(name)) {
+                        return null;
+                    }
+                } while (consume(','));
+                if (!consume('}') || pos != json.length || subject == null || expiresAt < 0) {
+                    return null;
+                }
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                return null;
+            }
+
+            return new VerifiedToken(
+                    subject,
+                    issuedAt >= 0 ? Instant.ofEpochSecond(issuedAt) : null,
+                    Instant.ofEpochSecond(expiresAt),
+                    userId,
+                    role,
+                    emailConfirmed,
+                    socialUser,
+                    sessionId);
+        }
+
+        private boolean readValue(String name) {
+            switch (name) {
+                case "sub" -> {
+                    subject = readString();
+                    return subject != null;
+                }
+                case "jti" -> {
+                    // Only makes the token unique; callers compare whole tokens
+                    return readString() != null;
+                }
+                case "sid" -> {
+                    sessionId = readString();
+                    return sessionId != null;
+                }
+                case "uid" -> {
+                    String value = readString();
+                    userId = value != null ? UUID.fromString(value) : null;
+                    return userId != null;
+                }
+                case "role" -> {
+                    String value = readString();
+                    role = value != null ? UserRole.valueOf(value) : null;
+                    return role != null;
+                }
+                case "email_verified" -> {
+                    emailConfirmed = readBoolean();
+                    return emailConfirmed != null;
+                }
+                case "social" -> {
+                    socialUser = readBoolean();
+                    return socialUser != null;
+                }
+                case "iat" -> {
+                    issuedAt = readLong();
+                    return issuedAt >= 0;
+                }
+                case "exp" -> {
+                    expiresAt = readLong();
+                    return expiresAt >= 0;
+                }
+                default -> {
+                    return false;
+                }
+            }
+        }
+
+        private boolean consume(char expected) {
+            if (pos < json.length && json[pos] == expected) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private String readString() {
+            if (!consume('"')) {
+                return null;
+            }
+            int start = pos;
+            while (json[pos] != '"') {
+                if (json[pos] == '\\') {
+                    return null;
+                }
+                pos++;
+            }
+            return new String(json, start, pos++ - start, StandardCharsets.UTF_8);
+        }
+
+        private Boolean readBoolean() {
+            if (matches("true")) {
+                return Boolean.TRUE;
+            }
+            if (matches("false")) {
+                return Boolean.FALSE;
+            }
+            return null;
+        }
+
+        private boolean matches(String literal) {
+            if (pos + literal.length() > json.length) {
+                return false;
+            }
+            for (int i = 0; i < literal.length(); i++) {
+                if (json[pos + i] != literal.charAt(i)) {
+                    return false;
+                }
+            }
+            pos += literal.length();
+            return true;
+        }
+
+        private long readLong() {
+            int start = pos;
+            long value = 0;
+            while (pos < json.length && json[pos] >= '0' && json[pos] <= '9' && pos - start < 18) {
+                value = value * 10 + (json[pos++] - '0');
+            }
+            return pos > start ? value : -1;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.solace.scholar_ai.user_service.security;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fetches Google's signing keys from its JWKS endpoint and caches them for as
+ * long as the response's {@code Cache-Control: max-age} allows.
+ */
+public class HttpGoogleSigningKeySource implements GoogleSigningKeySource {
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+    // Google always sends max-age; this only covers a response without one
+    private static final Duration DEFAULT_MAX_AGE = Duration.ofHours(1);
+
+    private final URI uri;
+    private final HttpClient httpClient;
+    private final Duration timeout;
+
+    public HttpGoogleSigningKeySource(URI uri, Duration timeout) {
+        this.uri = uri;
+        this.timeout = timeout;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public Keys load() throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(timeout).GET().build();
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching Google signing keys", e);
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException("Google JWKS endpoint returned HTTP " + response.statusCode());
+        }
+
+        Duration maxAge = response.headers()
+                .firstValue("Cache-Control")
+                .map(MAX_AGE::matcher)
+                .filter(Matcher::find)
+                .map(matcher -> Duration.ofSeconds(Long.parseLong(matcher.group(1))))
+                .orElse(DEFAULT_MAX_AGE);
+        return GoogleSigningKeySource.parse(response.body(), Instant.now().plus(maxAge));
+    }
+}
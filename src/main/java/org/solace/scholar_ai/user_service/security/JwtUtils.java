@@ -4,12 +4,19 @@ import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
+import java.security.Key;
+import java.security.PublicKey;
 import java.time.Instant;
 import java.util.Date;
+import java.util.UUID;
 import javax.crypto.SecretKey;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.solace.scholar_ai.user_service.model.CredentialType;
+import org.solace.scholar_ai.user_service.model.User;
+import org.solace.scholar_ai.user_service.model.UserRole;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -22,6 +29,15 @@ import org.springframework.stereotype.Component;
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_EMAIL_CONFIRMED = "email_verified";
+    public static final String CLAIM_SOCIAL_USER = "social";
+    public static final String CLAIM_SESSION_ID = "sid";
+
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final SigningKeyRing signingKeyRing;
+
     @Value("${spring.app.jwtSecret}")
     private String jwtSecret;
 
@@ -31,6 +47,46 @@ public class JwtUtils {
     @Value("${spring.app.refresh.expiration-ms}")
     private long refreshTokenValidityMs;
 
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+    private Hs256TokenCodec hs256Codec;
+
+    public JwtUtils(VerifiedTokenCache verifiedTokenCache, SigningKeyRing signingKeyRing) {
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.signingKeyRing = signingKeyRing;
+    }
+
+    /**
+     * Decodes the signing secret and builds the parser once, instead of on
+     * every sign or verify call.
+     * Tokens with a {@code kid} header are verified against the matching key in
+     * the {@link SigningKeyRing}; tokens without one fall back to the HS256
+     * secret so tokens issued before a switch to asymmetric signing stay valid.
+     * HS256 tokens in the shape this class emits are handled by
+     * {@link Hs256TokenCodec}; jjwt remains the fallback for everything else.
+     */
+    @PostConstruct
+    void init() {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.hs256Codec = new Hs256TokenCodec(signingKey);
+        this.jwtParser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        String keyId = header.getKeyId();
+                        if (keyId == null) {
+                            return signingKey;
+                        }
+                        PublicKey publicKey = signingKeyRing.publicKey(keyId);
+                        if (publicKey == null) {
+                            throw new UnsupportedJwtException("Unknown JWT signing key id: " + keyId);
+                        }
+                        return publicKey;
+                    }
+                })
+                .build();
+    }
+
     /**
      * Extracts the JWT token from the Authorization header of an HTTP request.
      *
@@ -48,7 +104,9 @@ public class JwtUtils {
     }
 
     /**
-     * Generates a JWT token for the given user details.
+     * Generates an access token carrying only the username.
+     * Prefer {@link #generateAccessToken(User)} so the filter can build the
+     * principal from the token alone.
      *
      * @return A JWT token string.
      */
@@ -56,44 +114,139 @@ public class JwtUtils {
         return generateToken(username, accessTokenValidityMs);
     }
 
-    public String generateRefreshToken(String username) {
-        return generateToken(username, refreshTokenValidityMs);
+    /**
+     * Generates an access token that also embeds the user id, role, email
+     * confirmation flag and whether it is a social account, so requests can be
+     * authenticated without a database lookup.
+     *
+     * @param user The authenticated user.
+     * @return A JWT token string.
+     */
+    public String generateAccessToken(User user) {
+        return generateAccessToken(
+                user.getEmail(),
+                user.getId(),
+                user.getRole(),
+                user.isEmailConfirmed(),
+                user.getCredentialType() == CredentialType.SOCIAL);
     }
 
-    public String generateToken(String username, long expirationMillis) {
+    /**
+     * Generates an access token embedding the given principal claims.
+     *
+     * @param email          The user's email.
+     * @param userId         The user's id.
+     * @param role           The user's role.
+     * @param emailConfirmed Whether the user has confirmed their email.
+     * @param socialUser     Whether the user signs in through an identity provider.
+     * @return A JWT token string.
+     */
+    public String generateAccessToken(
+            String email, UUID userId, UserRole role, boolean emailConfirmed, boolean socialUser) {
         Instant now = Instant.now();
-        Instant expiry = now.plusMillis(expirationMillis);
+        Instant expiry = now.plusMillis(accessTokenValidityMs);
 
-        return Jwts.builder()
-                .subject(username)
+        if (!signingKeyRing.isAsymmetric()) {
+            String token = hs256Codec.encode(email, null, null, userId, role, emailConfirmed, socialUser, now, expiry);
+            if (token != null) {
+                return token;
+            }
+        }
+
+        return sign(Jwts.builder())
+                .subject(email)
+                .claim(CLAIM_USER_ID, userId.toString())
+                .claim(CLAIM_ROLE, role.name())
+                .claim(CLAIM_EMAIL_CONFIRMED, emailConfirmed)
+                .claim(CLAIM_SOCIAL_USER, socialUser)
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(expiry))
-                .signWith(key(), Jwts.SIG.HS256)
                 .compact();
     }
 
     /**
-     * Extracts the username from a JWT token.
+     * Generates a refresh token bound to one session, so each device can be
+     * looked up and revoked on its own. Every token gets a random id, so a
+     * rotated token never equals the one it replaces.
+     *
+     * @param username  The user's email.
+     * @param sessionId The session id from {@code RefreshTokenService}.
+     * @return A JWT token string.
+     */
+    public String generateRefreshToken(String username, String sessionId) {
+        return generateToken(username, UUID.randomUUID().toString(), sessionId, refreshTokenValidityMs);
+    }
+
+    public String generateToken(String username, long expirationMillis) {
+        return generateToken(username, null, null, expirationMillis);
+    }
+
+    private String generateToken(String username, String tokenId, String sessionId, long expirationMillis) {
+        Instant now = Instant.now();
+        Instant expiry = now.plusMillis(expirationMillis);
+
+        if (!signingKeyRing.isAsymmetric()) {
+            String token = hs256Codec.encode(username, tokenId, sessionId, null, null, null, null, now, expiry);
+            if (token != null) {
+                return token;
+            }
+        }
+
+        JwtBuilder builder = sign(Jwts.builder()).subject(username);
+        if (tokenId != null) {
+            builder.id(tokenId);
+        }
+        if (sessionId != null) {
+            builder.claim(CLAIM_SESSION_ID, sessionId);
+        }
+        return builder.issuedAt(Date.from(now)).expiration(Date.from(expiry)).compact();
+    }
+
+    /**
+     * Applies the configured signing key: the active key from the ring (with its
+     * {@code kid} header) when asymmetric signing is enabled, otherwise the
+     * shared HS256 secret.
+     *
+     * @param builder The token builder.
+     * @return The builder, ready for claims.
+     */
+    private JwtBuilder sign(JwtBuilder builder) {
+        if (signingKeyRing.isAsymmetric()) {
+            SigningKeyRing.RingKey activeKey = signingKeyRing.activeKey();
+            return builder.header().keyId(activeKey.id()).and().signWith(activeKey.privateKey());
+        }
+        return builder.signWith(signingKey, Jwts.SIG.HS256);
+    }
+
+    /**
+     * Verifies a JWT token once and returns its parsed claims.
+     * Successful verifications are cached until the token expires, so repeated
+     * requests carrying the same token skip signature verification.
      *
      * @param token The JWT token string.
-     * @return The username contained in the token.
+     * @return The verified token, or null if it is invalid or expired.
      */
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parser()
-                .verifyWith((SecretKey) key())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+    public VerifiedToken verifyToken(String token) {
+        if (token == null || token.isBlank()) {
+            logger.error("JWT claims string is empty");
+            return null;
+        }
+        return verifiedTokenCache.get(token, this::parseAndVerify);
     }
 
     /**
-     * Generates the signing key for JWT tokens using the configured secret.
+     * Extracts the username from a JWT token.
      *
-     * @return The signing key.
+     * @param token The JWT token string.
+     * @return The username contained in the token.
+     * @throws JwtException If the token is invalid or expired.
      */
-    private SecretKey key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    public String getUserNameFromJwtToken(String token) {
+        VerifiedToken verified = verifyToken(token);
+        if (verified == null) {
+            throw new JwtException("Invalid or expired JWT token");
+        }
+        return verified.subject();
     }
 
     /**
@@ -104,10 +257,33 @@ public class JwtUtils {
      * @return True if the token is valid, false otherwise.
      */
     public boolean validateJwtToken(String authToken) {
+        return verifyToken(authToken) != null;
+    }
+
+    private VerifiedToken parseAndVerify(String authToken) {
         try {
             logger.debug("Validating JWT token: {}", authToken);
-            Jwts.parser().verifyWith((SecretKey) key()).build().parseSignedClaims(authToken);
-            return true;
+            VerifiedToken fastPath = hs256Codec.decode(authToken);
+            if (fastPath != null) {
+                if (!fastPath.isValidAt(Instant.now())) {
+                    logger.error("JWT token is expired: {}", fastPath.expiresAt());
+                    return null;
+                }
+                return fastPath;
+            }
+
+            Claims claims = jwtParser.parseSignedClaims(authToken).getPayload();
+            String userId = claims.get(CLAIM_USER_ID, String.class);
+            String role = claims.get(CLAIM_ROLE, String.class);
+            return new VerifiedToken(
+                    claims.getSubject(),
+                    claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                    claims.getExpiration() != null ? claims.getExpiration().toInstant() : null,
+                    userId != null ? UUID.fromString(userId) : null,
+                    role != null ? UserRole.valueOf(role) : null,
+                    claims.get(CLAIM_EMAIL_CONFIRMED, Boolean.class),
+                    claims.get(CLAIM_SOCIAL_USER, Boolean.class),
+                    claims.get(CLAIM_SESSION_ID, String.class));
         } catch (SignatureException e) {
             logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
@@ -119,6 +295,6 @@ public class JwtUtils {
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
-        return false;
+        return null;
     }
 }
@@ -0,0 +1,74 @@
+package org.solace.scholar_ai.user_service.security;
+
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Picks the BCrypt work factor whose verification time comes closest to a
+ * target without exceeding it on the current hardware. Each step of the work
+ * factor doubles the cost, so the search stops at the first strength over the
+ * target.
+ *
+ * <p>Used at startup when {@code spring.app.password-hashing.bcrypt-strength}
+ * is 0, or offline on a production-like host with
+ * {@code java -cp <app classpath> org.solace.scholar_ai.user_service.security.PasswordCostCalibrator 250}
+ * to choose a fixed value.
+ */
+public final class PasswordCostCalibrator {
+    private static final Logger logger = LoggerFactory.getLogger(PasswordCostCalibrator.class);
+
+    // Below this BCrypt is no longer considered adequate, whatever the hardware
+    static final int MIN_STRENGTH = 10;
+    static final int MAX_STRENGTH = 31;
+    private static final int SAMPLES = 3;
+    private static final String SAMPLE_PASSWORD = "calibration-Password-1";
+
+    private PasswordCostCalibrator() {}
+
+    /**
+     * @param targetVerifyTime The longest a single verification may take.
+     * @return The highest strength that verifies within the target, and never
+     *         less than {@value #MIN_STRENGTH}.
+     */
+    public static int calibrateBCrypt(Duration targetVerifyTime) {
+        int chosen = MIN_STRENGTH;
+        for (int strength = MIN_STRENGTH; strength <= MAX_STRENGTH; strength++) {
+            Duration verifyTime = measureVerify(strength);
+            logger.debug("BCrypt strength {} verifies in {} ms", strength, verifyTime.toMillis());
+            if (verifyTime.compareTo(targetVerifyTime) > 0) {
+                if (strength == MIN_STRENGTH) {
+                    logger.warn(
+                            "BCrypt strength {} already takes {} ms, above the {} ms target",
+                            strength,
+                            verifyTime.toMillis(),
+                            targetVerifyTime.toMillis());
+                }
+                break;
+            }
+            chosen = strength;
+        }
+        logger.info("Calibrated BCrypt strength {} for a {} ms verify target", chosen, targetVerifyTime.toMillis());
+        return chosen;
+    }
+
+    // Fastest of a few runs, to filter out JIT warm-up and scheduling noise
+    private static Duration measureVerify(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        String hash = encoder.encode(SAMPLE_PASSWORD);
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.matches(SAMPLE_PASSWORD, hash);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return Duration.ofNanos(fastest);
+    }
+
+    public static void main(String[] args) {
+        long targetMs = args.length > 0 ? Long.parseLong(args[0]) : 250;
+        int strength = calibrateBCrypt(Duration.ofMillis(targetMs));
+        System.out.println("PASSWORD_HASHING_BCRYPT_STRENGTH=" + strength);
+    }
+}
@@ -0,0 +1,38 @@
+package org.solace.scholar_ai.user_service.security;
+
+/**
+ * Endpoints throttled by {@link AuthRateLimiter}. Each has its own limits
+ * under {@code spring.app.rate-limit.<key>.per-ip} and {@code .per-email},
+ * written as {@code <requests>/<period>}; the defaults here apply when those
+ * are not set.
+ */
+public enum RateLimitedRoute {
+    LOGIN("login", "30/1m", "10/10m"),
+    REGISTER("register", "5/10m", "3/1h"),
+    FORGOT_PASSWORD("forgot-password", "10/10m", "3/15m"),
+    RESET_PASSWORD("reset-password", "20/10m", "10/15m"),
+    RESEND_EMAIL_VERIFICATION("resend-email-verification", "10/10m", "3/15m"),
+    CONFIRM_EMAIL("confirm-email", "20/10m", "10/15m");
+
+    private final String key;
+    private final String defaultPerIp;
+    private final String defaultPerEmail;
+
+    RateLimitedRoute(String key, String defaultPerIp, String defaultPerEmail) {
+        this.key = key;
+        this.defaultPerIp = defaultPerIp;
+        this.defaultPerEmail = defaultPerEmail;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public String defaultPerIp() {
+        return defaultPerIp;
+    }
+
+    public String defaultPerEmail() {
+        return defaultPerEmail;
+    }
+}
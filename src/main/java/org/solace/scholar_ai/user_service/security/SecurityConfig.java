@@ -1,7 +1,13 @@
 package org.solace.scholar_ai.user_service.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
 import javax.sql.DataSource;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -12,7 +18,9 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.JdbcUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
@@ -66,6 +74,12 @@ public class SecurityConfig {
                         // Health check endpoints
                         .requestMatchers("/health", "/health/**")
                         .permitAll()
+                        // Public signing keys for token verification by other services
+                        .requestMatchers("/.well-known/jwks.json")
+                        .permitAll()
+                        // Stub identity provider, only mapped with the github-stub profile
+                        .requestMatchers("/stub/github/**")
+                        .permitAll()
                         // All other requests require authentication
                         .anyRequest()
                         .authenticated())
@@ -98,13 +112,67 @@ public class SecurityConfig {
     /**
      * Configures the PasswordEncoder bean.
      * This encoder is used for encoding and verifying passwords.
-     * It uses BCryptPasswordEncoder.
+     * New hashes are prefixed with the algorithm id (e.g. {@code {bcrypt}}), so
+     * the algorithm or its cost can change without forcing password resets;
+     * hashes from before the prefix are verified as BCrypt. Hashing runs on a
+     * bounded pool off the request threads.
      *
+     * @param meterRegistry  The registry for the hashing pool metrics.
+     * @param algorithm      The algorithm for new hashes: bcrypt or argon2.
+     * @param bcryptStrength The BCrypt work factor; 0 calibrates it at startup.
+     * @param targetVerifyMs The verify time calibration aims for.
+     * @param threads        Hashing threads; 0 means one per available core.
+     * @param queueCapacity  Hashing tasks allowed to wait for a thread.
+     * @param retryAfterMs   Retry-After hint given when the queue is full.
      * @return A PasswordEncoder instance.
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            MeterRegistry meterRegistry,
+            @Value("${spring.app.password-hashing.algorithm:bcrypt}") String algorithm,
+            @Value("${spring.app.password-hashing.bcrypt-strength:10}") int bcryptStrength,
+            @Value("${spring.app.password-hashing.target-verify-ms:250}") long targetVerifyMs,
+            @Value("${spring.app.password-hashing.threads:0}") int threads,
+            @Value("${spring.app.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${spring.app.password-hashing.retry-after-ms:1000}") long retryAfterMs) {
+        int strength = bcryptStrength > 0
+                ? bcryptStrength
+                : PasswordCostCalibrator.calibrateBCrypt(Duration.ofMillis(targetVerifyMs));
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+
+        Map<String, PasswordEncoder> encoders =
+                Map.of("bcrypt", bcrypt, "argon2", Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        if (!encoders.containsKey(algorithm)) {
+            throw new IllegalStateException("Unsupported password hashing algorithm: " + algorithm);
+        }
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(algorithm, encoders);
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        return new BoundedPasswordEncoder(
+                delegating,
+                meterRegistry,
+                threads > 0 ? threads : Runtime.getRuntime().availableProcessors(),
+                queueCapacity,
+                Duration.ofMillis(retryAfterMs));
+    }
+
+    /**
+     * Configures where Google ID-token signing keys are fetched from.
+     *
+     * @param location Google's JWKS URL, or {@code file:} followed by the path
+     *                 of a local JWK Set to verify tokens offline.
+     * @param timeoutMs Connect and read timeout for the JWKS endpoint.
+     * @return A GoogleSigningKeySource instance.
+     */
+    @Bean
+    public GoogleSigningKeySource googleSigningKeySource(
+            @Value("${spring.app.google.signing-keys.source:https://www.googleapis.com/oauth2/v3/certs}")
+                    String location,
+            @Value("${spring.app.google.signing-keys.timeout-ms:5000}") long timeoutMs) {
+        if (location.startsWith("file:")) {
+            return new FileGoogleSigningKeySource(Path.of(location.substring("file:".length())), Duration.ofMinutes(1));
+        }
+        return new HttpGoogleSigningKeySource(URI.create(location), Duration.ofMillis(timeoutMs));
     }
 
     /**
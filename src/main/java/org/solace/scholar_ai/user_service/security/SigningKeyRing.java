@@ -0,0 +1,174 @@
+package org.solace.scholar_ai.user_service.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PrivateJwk;
+import io.jsonwebtoken.security.PublicJwk;
+import jakarta.annotation.PostConstruct;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Ring of asymmetric JWT signing keys.
+ *
+ * <p>Keys are supplied as a JWK Set through {@code spring.app.jwt.signing-keys}.
+ * Private JWKs (EC P-256 for ES256, Ed25519 for EdDSA) can sign; public-only
+ * JWKs are kept for verifying tokens signed by a retired key. New tokens are
+ * signed with {@code spring.app.jwt.active-key-id} and carry its {@code kid}
+ * header, and every key is published through the JWKS endpoint.
+ *
+ * <p>To rotate: add the new private key to the set, wait for downstream JWKS
+ * caches to refresh, switch the active key id, then replace the old private key
+ * with its public half until the longest-lived token signed by it has expired.
+ *
+ * <p>With {@code spring.app.jwt.algorithm=HS256} (the default) the ring is empty
+ * and tokens keep being signed with the shared secret.
+ */
+@Component
+public class SigningKeyRing {
+    private static final Logger logger = LoggerFactory.getLogger(SigningKeyRing.class);
+
+    @Value("${spring.app.jwt.algorithm:HS256}")
+    private String algorithm;
+
+    @Value("${spring.app.jwt.signing-keys:}")
+    private String signingKeysJson;
+
+    @Value("${spring.app.jwt.active-key-id:}")
+    private String activeKeyId;
+
+    private Map<String, RingKey> keysById = Collections.emptyMap();
+    private RingKey activeKey;
+    private String jwksJson = "{\"keys\":[]}";
+
+    /**
+     * A key in the ring. The private key is null for verification-only keys.
+     */
+    public record RingKey(String id, PrivateKey privateKey, PublicKey publicKey, PublicJwk<?> publicJwk) {}
+
+    @PostConstruct
+    void init() {
+        if ("HS256".equalsIgnoreCase(algorithm)) {
+            logger.info("JWT signing uses the shared HS256 secret; JWKS endpoint will publish no keys");
+            return;
+        }
+
+        Map<String, RingKey> keys =
+                StringUtils.hasText(signingKeysJson) ? parseKeySet(signingKeysJson) : generateEphemeralKey();
+
+        String activeId = StringUtils.hasText(activeKeyId)
+                ? activeKeyId
+                : keys.values().stream()
+                        .filter(key -> key.privateKey() != null)
+                        .reduce((first, second) -> second)
+                        .map(RingKey::id)
+                        .orElse(null);
+
+        RingKey active = activeId != null ? keys.get(activeId) : null;
+        if (active == null || active.privateKey() == null) {
+            throw new IllegalStateException("No private JWT signing key found for active key id: " + activeId);
+        }
+
+        this.keysById = Collections.unmodifiableMap(keys);
+        this.activeKey = active;
+        this.jwksJson = keys.values().stream()
+                .map(key -> Jwks.json(key.publicJwk()))
+                .collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+        logger.info("Loaded {} JWT signing key(s), active key id: {}", keys.size(), active.id());
+    }
+
+    /**
+     * @return True when tokens are signed with an asymmetric key from the ring.
+     */
+    public boolean isAsymmetric() {
+        return activeKey != null;
+    }
+
+    /**
+     * @return The key used to sign new tokens, or null in HS256 mode.
+     */
+    public RingKey activeKey() {
+        return activeKey;
+    }
+
+    /**
+     * Finds the public key for a token's {@code kid} header.
+     *
+     * @param keyId The key id.
+     * @return The public key, or null if the id is not in the ring.
+     */
+    public PublicKey publicKey(String keyId) {
+        RingKey key = keysById.get(keyId);
+        return key != null ? key.publicKey() : null;
+    }
+
+    /**
+     * @return The public half of every key in the ring as a JWK Set document.
+     */
+    public String jwksJson() {
+        return jwksJson;
+    }
+
+    private Map<String, RingKey> parseKeySet(String json) {
+        JwkSet jwkSet = Jwks.setParser().build().parse(json);
+        Map<String, RingKey> keys = new LinkedHashMap<>();
+
+        for (Jwk<?> jwk : jwkSet.getKeys()) {
+            RingKey key;
+            if (jwk instanceof PrivateJwk<?, ?, ?> privateJwk) {
+                key = ringKey(
+                        keyId(jwk), privateJwk.toKey(), privateJwk.toKeyPair().getPublic());
+            } else if (jwk instanceof PublicJwk<?> publicJwk) {
+                key = ringKey(keyId(jwk), null, publicJwk.toKey());
+            } else {
+                throw new IllegalStateException(
+                        "JWT signing keys must be asymmetric, found key type: " + jwk.getType());
+            }
+            keys.put(key.id(), key);
+        }
+
+        if (keys.isEmpty()) {
+            throw new IllegalStateException("spring.app.jwt.signing-keys contains no keys");
+        }
+        return keys;
+    }
+
+    private Map<String, RingKey> generateEphemeralKey() {
+        logger.warn(
+                "No JWT signing keys configured for {}; generating an ephemeral key. "
+                        + "Tokens will not verify on other replicas or after a restart.",
+                algorithm);
+
+        KeyPair keyPair = "EdDSA".equalsIgnoreCase(algorithm)
+                ? Jwts.SIG.EdDSA.keyPair().build()
+                : Jwts.SIG.ES256.keyPair().build();
+        String keyId =
+                Jwks.builder().key(keyPair.getPublic()).build().thumbprint().toString();
+
+        Map<String, RingKey> keys = new LinkedHashMap<>();
+        keys.put(keyId, ringKey(keyId, keyPair.getPrivate(), keyPair.getPublic()));
+        return keys;
+    }
+
+    private static RingKey ringKey(String keyId, PrivateKey privateKey, PublicKey publicKey) {
+        PublicJwk<?> publicJwk =
+                Jwks.builder().key(publicKey).id(keyId).publicKeyUse("sig").build();
+        return new RingKey(keyId, privateKey, publicKey, publicJwk);
+    }
+
+    private static String keyId(Jwk<?> jwk) {
+        return StringUtils.hasText(jwk.getId()) ? jwk.getId() : jwk.thumbprint().toString();
+    }
+}
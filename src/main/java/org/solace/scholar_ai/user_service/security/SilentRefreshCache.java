@@ -0,0 +1,170 @@
+package org.solace.scholar_ai.user_service.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.solace.scholar_ai.user_service.config.RedisCircuitBreaker;
+import org.solace.scholar_ai.user_service.service.auth.RefreshTokenService;
+import org.solace.scholar_ai.user_service.service.auth.UserLoadingService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+/**
+ * Memoizes the access token {@link AuthTokenFilter} mints when it silently
+ * refreshes an expired session, keyed by a digest of the refresh token.
+ * A client that keeps sending the expired access token gets the same new one
+ * back for as long as it is valid, from memory on this replica or from Redis
+ * on the others, instead of a fresh token and principal lookup per request.
+ *
+ * <p>A memo is only served while its refresh token is still the current one
+ * for its session. Once the session is revoked, or the token rotated, the
+ * memo is dropped here and in Redis, so a revoked refresh token stops
+ * authenticating requests on every replica straight away.
+ */
+@Component
+public class SilentRefreshCache {
+    private static final Logger logger = LoggerFactory.getLogger(SilentRefreshCache.class);
+    private static final String REDIS_KEY_PREFIX = "silent_refresh:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisCircuitBreaker redisCircuitBreaker;
+    private final JwtUtils jwtUtils;
+    private final UserLoadingService userLoadingService;
+    private final RefreshTokenService refreshTokenService;
+    private final Cache<String, SilentRefresh> cache;
+
+    /**
+     * A silently refreshed session.
+     *
+     * @param accessToken The access token minted for it.
+     * @param expiresAt   When that access token expires.
+     * @param principal   The principal to authenticate the request as.
+     */
+    public record SilentRefresh(String accessToken, Instant expiresAt, UserDetails principal) {}
+
+    public SilentRefreshCache(
+            RedisTemplate<String, String> redisTemplate,
+            RedisCircuitBreaker redisCircuitBreaker,
+            JwtUtils jwtUtils,
+            UserLoadingService userLoadingService,
+            RefreshTokenService refreshTokenService,
+            MeterRegistry meterRegistry,
+            @Value("${spring.app.jwt.silent-refresh-cache.max-size:10000}") long maxSize) {
+        this.redisTemplate = redisTemplate;
+        this.redisCircuitBreaker = redisCircuitBreaker;
+        this.jwtUtils = jwtUtils;
+        this.userLoadingService = userLoadingService;
+        this.refreshTokenService = refreshTokenService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new AccessTokenLifetimeExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.silent-refreshes");
+    }
+
+    /**
+     * Returns the memoized refresh for a refresh token, running the refresher
+     * only when neither this replica nor Redis has one. Concurrent requests
+     * with the same refresh token wait for a single refresh. A memo whose
+     * refresh token has been revoked or rotated is dropped instead.
+     *
+     * @param refreshToken The raw refresh token from the cookie.
+     * @param refresher    Validates the refresh token and mints an access
+     *                     token, or returns null if the session is gone.
+     * @return The refresh, or null if the refresh token was rejected.
+     */
+    public SilentRefresh get(String refreshToken, Supplier<SilentRefresh> refresher) {
+        String key = VerifiedTokenCache.digest(refreshToken);
+        boolean[] minted = new boolean[1];
+        SilentRefresh refresh = cache.get(key, k -> {
+            SilentRefresh shared = loadShared(k);
+            if (shared != null) {
+                return shared;
+            }
+            SilentRefresh fresh = refresher.get();
+            if (fresh != null) {
+                minted[0] = true;
+                storeShared(k, fresh);
+            }
+            return fresh;
+        });
+
+        // The refresher has just checked the session; a memo has not
+        if (refresh != null && !minted[0] && !isCurrent(refreshToken)) {
+            logger.debug("Dropping silent refresh memo of a revoked refresh token");
+            cache.invalidate(key);
+            redisCircuitBreaker.run(() -> redisTemplate.delete(REDIS_KEY_PREFIX + key), () -> {});
+            return null;
+        }
+        return refresh;
+    }
+
+    private boolean isCurrent(String refreshToken) {
+        VerifiedToken verified = jwtUtils.verifyToken(refreshToken);
+        return verified != null
+                && refreshTokenService.isRefreshTokenValid(verified.subject(), verified.sessionId(), refreshToken);
+    }
+
+    private SilentRefresh loadShared(String key) {
+        String accessToken =
+                redisCircuitBreaker.execute(() -> redisTemplate.opsForValue().get(REDIS_KEY_PREFIX + key), () -> null);
+        if (accessToken == null) {
+            return null;
+        }
+
+        VerifiedToken verified = jwtUtils.verifyToken(accessToken);
+        if (verified == null) {
+            return null;
+        }
+        logger.debug("Reusing silent refresh from another replica for user: {}", verified.subject());
+        return new SilentRefresh(
+                accessToken, verified.expiresAt(), userLoadingService.loadPrincipalByUsername(verified.subject()));
+    }
+
+    private void storeShared(String key, SilentRefresh refresh) {
+        Duration remaining = Duration.between(Instant.now(), refresh.expiresAt());
+        if (remaining.isNegative() || remaining.isZero()) {
+            return;
+        }
+        // Without Redis the memo is only local to this replica
+        redisCircuitBreaker.run(
+                () -> redisTemplate.opsForValue().set(REDIS_KEY_PREFIX + key, refresh.accessToken(), remaining),
+                () -> {});
+    }
+
+    /**
+     * Expires every entry when its access token expires.
+     */
+    private static final class AccessTokenLifetimeExpiry implements Expiry<String, SilentRefresh> {
+
+        @Override
+        public long expireAfterCreate(String key, SilentRefresh value, long currentTime) {
+            return remainingNanos(value);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, SilentRefresh value, long currentTime, long currentDuration) {
+            return remainingNanos(value);
+        }
+
+        @Override
+        public long expireAfterRead(String key, SilentRefresh value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        private static long remainingNanos(SilentRefresh value) {
+            Duration remaining = Duration.between(Instant.now(), value.expiresAt());
+            return remaining.isNegative() ? 0 : remaining.toNanos();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.solace.scholar_ai.user_service.security;
+
+import java.time.Instant;
+import java.util.UUID;
+import org.solace.scholar_ai.user_service.model.UserRole;
+
+/**
+ * Immutable view of a JWT whose signature and expiry have already been checked.
+ *
+ * @param subject        The token subject (the user's email).
+ * @param issuedAt       When the token was issued.
+ * @param expiresAt      When the token stops being valid.
+ * @param userId         The user id claim, or null for tokens issued without it.
+ * @param role           The role claim, or null for tokens issued without it.
+ * @param emailConfirmed The email confirmation claim, or null for tokens issued
+ *                       without it.
+ * @param socialUser     The social account claim, or null for tokens issued
+ *                       without it.
+ * @param sessionId      The session id claim of a refresh token, or null.
+ */
+public record VerifiedToken(
+        String subject,
+        Instant issuedAt,
+        Instant expiresAt,
+        UUID userId,
+        UserRole role,
+        Boolean emailConfirmed,
+        Boolean socialUser,
+        String sessionId) {
+
+    public VerifiedToken(String subject, Instant issuedAt, Instant expiresAt) {
+        this(subject, issuedAt, expiresAt, null, null, null, null, null);
+    }
+
+    /**
+     * Checks whether the token is still within its validity window.
+     *
+     * @param now The instant to compare against.
+     * @return True if the token has not yet expired.
+     */
+    public boolean isValidAt(Instant now) {
+        return expiresAt != null && expiresAt.isAfter(now);
+    }
+
+    /**
+     * Checks whether the token carries every claim needed to build the
+     * principal without loading the user.
+     *
+     * @return True if user id, role, email confirmation and social account
+     *         claims are present.
+     */
+    public boolean hasPrincipalClaims() {
+        return userId != null && role != null && emailConfirmed != null && socialUser != null;
+    }
+}
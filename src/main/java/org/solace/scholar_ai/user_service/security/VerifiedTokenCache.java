@@ -0,0 +1,114 @@
+package org.solace.scholar_ai.user_service.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of already verified JWTs.
+ * Entries are keyed by a SHA-256 digest of the raw token so the token itself is
+ * never held as a map key, and each entry expires no later than the token's own
+ * {@code exp} claim.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(
+            MeterRegistry meterRegistry, @Value("${spring.app.jwt.verified-cache.max-size:10000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenLifetimeExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified-tokens");
+    }
+
+    /**
+     * Returns the verified view of a token, running the verifier only on a cache
+     * miss. A {@code null} result from the verifier (invalid token) is not cached.
+     *
+     * @param token    The raw JWT string.
+     * @param verifier Function that fully verifies the token, or returns null.
+     * @return The verified token, or null if the token is invalid or expired.
+     */
+    public VerifiedToken get(String token, Function<String, VerifiedToken> verifier) {
+        String key = digest(token);
+        VerifiedToken cached = cache.getIfPresent(key);
+        if (cached != null) {
+            if (cached.isValidAt(Instant.now())) {
+                return cached;
+            }
+            cache.invalidate(key);
+            return null;
+        }
+
+        VerifiedToken verified = verifier.apply(token);
+        if (verified != null && verified.isValidAt(Instant.now())) {
+            cache.put(key, verified);
+        }
+        return verified;
+    }
+
+    /**
+     * Drops a token from the cache, e.g. after it has been revoked.
+     *
+     * @param token The raw JWT string.
+     */
+    public void invalidate(String token) {
+        cache.invalidate(digest(token));
+    }
+
+    static String digest(String token) {
+        MessageDigest sha256 = SHA_256.get();
+        sha256.reset();
+        byte[] hash = sha256.digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    /**
+     * Expires every entry at the token's own expiry instant.
+     */
+    private static final class TokenLifetimeExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            return remainingNanos(value);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return remainingNanos(value);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        private static long remainingNanos(VerifiedToken value) {
+            Duration remaining = Duration.between(Instant.now(), value.expiresAt());
+            return remaining.isNegative() ? 0 : remaining.toNanos();
+        }
+    }
+}
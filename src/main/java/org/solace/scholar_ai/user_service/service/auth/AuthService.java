@@ -1,20 +1,22 @@
 package org.solace.scholar_ai.user_service.service.auth;
 
-import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.solace.scholar_ai.user_service.dto.auth.AuthResponse;
 import org.solace.scholar_ai.user_service.dto.auth.EmailConfirmationStatusDTO;
 import org.solace.scholar_ai.user_service.model.User;
 import org.solace.scholar_ai.user_service.model.UserProfile;
 import org.solace.scholar_ai.user_service.model.UserRole;
+import org.solace.scholar_ai.user_service.repository.LoginCredentials;
 import org.solace.scholar_ai.user_service.repository.UserIdentityProviderRepository;
 import org.solace.scholar_ai.user_service.repository.UserProfileRepository;
 import org.solace.scholar_ai.user_service.repository.UserRepository;
 import org.solace.scholar_ai.user_service.security.JwtUtils;
+import org.solace.scholar_ai.user_service.security.VerifiedToken;
 import org.solace.scholar_ai.user_service.service.notification.NotificationService;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -29,6 +31,7 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 @RequiredArgsConstructor
 public class AuthService {
+    private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
     private final UserRepository userRepository;
     private final UserIdentityProviderRepository userIdentityProviderRepository;
     private final UserProfileRepository userProfileRepository;
@@ -36,23 +39,56 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtils jwtUtils;
     private final RefreshTokenService refreshTokenService;
-    private final RedisTemplate<String, String> redisTemplate;
     private final NotificationService notificationService;
+    private final PrincipalCache principalCache;
+    private final OtpService otpService;
 
     public Authentication authentication(String email, String password) {
-        UserDetails userDetails = userLoadingService.loadUserByUsername(email);
+        return authentication(loadLoginCredentials(email), password);
+    }
 
-        if (userDetails == null) {
-            throw new BadCredentialsException("Invalid email ...");
+    // Checks the password against credentials that are already loaded
+    private Authentication authentication(LoginCredentials credentials, String password) {
+        // Social accounts have no hash to check; refuse them without touching the encoder
+        if (credentials.socialUser()) {
+            throw new BadCredentialsException("Invalid Password");
         }
-        if (!passwordEncoder.matches(password, userDetails.getPassword())) {
+        if (!passwordEncoder.matches(password, credentials.encryptedPassword())) {
             throw new BadCredentialsException("Invalid Password");
         }
+        if (passwordEncoder.upgradeEncoding(credentials.encryptedPassword())) {
+            rehashPassword(credentials.email(), password);
+        }
 
+        UserDetails userDetails = new PrincipalSnapshot(
+                        credentials.id(), credentials.email(), credentials.role(), credentials.emailConfirmed(), false)
+                .toUserDetails();
         return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
     }
 
-    // register new user
+    private LoginCredentials loadLoginCredentials(String email) {
+        return userRepository
+                .findLoginCredentialsByEmail(email)
+                .orElseThrow(() -> new BadCredentialsException("Invalid email ..."));
+    }
+
+    // Re-encode a password stored with an older algorithm or cost, while the
+    // plain text is at hand; a failure here must not fail the login
+    private void rehashPassword(String email, String password) {
+        try {
+            userRepository.findByEmail(email).ifPresent(user -> {
+                user.setEncryptedPassword(passwordEncoder.encode(password));
+                user.setUpdatedAt(Instant.now());
+                userRepository.save(user);
+                logger.info("Upgraded password hash for user: {}", email);
+            });
+        } catch (Exception e) {
+            logger.warn("Failed to upgrade password hash for user: {}: {}", email, e.getMessage());
+        }
+    }
+
+    // register new user; the verification email is queued in the same transaction
+    @Transactional
     public void registerUser(String email, String password, UserRole role) {
         // if exists in users table, not allowed
         if (userRepository.findByEmail(email).isPresent()) {
@@ -80,40 +116,37 @@ public class AuthService {
 
         userProfileRepository.save(userProfile);
 
-        // Send email verification with OTP
-        try {
-            String verificationCode = generateVerificationCode(email);
-            notificationService.sendEmailVerificationEmail(email, email.split("@")[0], verificationCode);
-        } catch (Exception e) {
-            // Log error but don't fail registration
-            // In production, you might want to implement retry logic
-        }
+        // Queued in the outbox with the new account, so neither is kept without the other
+        String verificationCode = generateVerificationCode(email);
+        notificationService.sendEmailVerificationEmail(email, email.split("@")[0], verificationCode);
     }
 
     // login registered user
     public AuthResponse loginUser(String email, String password) {
-        Authentication authentication = authentication(email, password);
-        SecurityContextHolder.getContext().setAuthentication(authentication);
+        return loginUser(email, password, null);
+    }
 
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        String accessToken = jwtUtils.generateAccessToken(userDetails.getUsername());
-        String refreshToken = jwtUtils.generateRefreshToken(userDetails.getUsername());
-        refreshTokenService.saveRefreshToken(userDetails.getUsername(), refreshToken);
+    // login registered user, starting a new session for the given device
+    public AuthResponse loginUser(String email, String password, String deviceName) {
+        LoginCredentials credentials = loadLoginCredentials(email);
 
-        // if user exists in social_users, then not allow email, pass login
-        if (userIdentityProviderRepository.findByUserEmail(email).isPresent()) {
+        // if user exists in social_users, then not allow email, pass login; checked
+        // before the password so no hashing or token work is spent on it
+        if (credentials.socialUser()) {
             throw new BadCredentialsException("This " + email
                     + " is already registered via Google/Github login. Please use social auth to continue.");
         }
 
-        User user =
-                userRepository.findByEmail(email).orElseThrow(() -> new BadCredentialsException("Invalid email ..."));
+        Authentication authentication = authentication(credentials, password);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        List<String> roles = userDetails.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .toList();
+        String accessToken = jwtUtils.generateAccessToken(
+                credentials.email(), credentials.id(), credentials.role(), credentials.emailConfirmed(), false);
+        String sessionId = refreshTokenService.newSessionId();
+        String refreshToken = jwtUtils.generateRefreshToken(credentials.email(), sessionId);
+        refreshTokenService.saveRefreshToken(credentials.email(), sessionId, refreshToken, deviceName);
 
-        return new AuthResponse(accessToken, refreshToken, userDetails.getUsername(), user.getId(), user.getRole());
+        return new AuthResponse(accessToken, refreshToken, credentials.email(), credentials.id(), credentials.role());
     }
 
     // refresh access token when access token expires
@@ -122,26 +155,49 @@ public class AuthService {
             throw new BadCredentialsException("Refresh token is null or empty");
         }
 
-        if (!jwtUtils.validateJwtToken(refreshToken)) {
+        VerifiedToken verifiedRefreshToken = jwtUtils.verifyToken(refreshToken);
+        if (verifiedRefreshToken == null) {
             throw new BadCredentialsException("Invalid refresh token - JWT validation failed");
         }
 
-        String username = jwtUtils.getUserNameFromJwtToken(refreshToken);
+        String username = verifiedRefreshToken.subject();
         if (username == null || username.trim().isEmpty()) {
             throw new BadCredentialsException("Invalid refresh token - username extraction failed");
         }
 
-        if (!refreshTokenService.isRefreshTokenValid(username, refreshToken)) {
-            throw new BadCredentialsException("Refresh token is not recognized or has expired");
-        }
-
-        String newAccessToken = jwtUtils.generateAccessToken(username);
-        String newRefreshToken = refreshToken;
-        refreshTokenService.saveRefreshToken(username, newRefreshToken);
-
         User user =
                 userRepository.findByEmail(username).orElseThrow(() -> new BadCredentialsException("Invalid Email..."));
 
+        String sessionId = verifiedRefreshToken.sessionId();
+        String newAccessToken = jwtUtils.generateAccessToken(user);
+        String newRefreshToken;
+        if (sessionId == null) {
+            // Token from before sessions existed: move it to a session of its own
+            if (!refreshTokenService.isRefreshTokenValid(username, null, refreshToken)) {
+                throw new BadCredentialsException("Refresh token is not recognized or has expired");
+            }
+            sessionId = refreshTokenService.newSessionId();
+            newRefreshToken = jwtUtils.generateRefreshToken(username, sessionId);
+            refreshTokenService.saveRefreshToken(username, sessionId, newRefreshToken, null);
+            refreshTokenService.deleteLegacyRefreshToken(username);
+        } else {
+            RefreshTokenService.Rotation rotation = refreshTokenService.rotateRefreshToken(
+                    username,
+                    sessionId,
+                    refreshToken,
+                    jwtUtils.generateRefreshToken(username, sessionId),
+                    newAccessToken);
+            switch (rotation.outcome()) {
+                case ROTATED, GRACE -> {
+                    newRefreshToken = rotation.refreshToken();
+                    newAccessToken = rotation.accessToken();
+                }
+                case REUSED -> throw new BadCredentialsException(
+                        "Refresh token has already been used; the session has been revoked");
+                default -> throw new BadCredentialsException("Refresh token is not recognized or has expired");
+            }
+        }
+
         List<String> roles = userLoadingService.loadUserByUsername(username).getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .toList();
@@ -149,9 +205,17 @@ public class AuthService {
         return new AuthResponse(newAccessToken, newRefreshToken, username, user.getId(), user.getRole());
     }
 
-    // Logout user
-    public void logoutUser(String username) {
-        refreshTokenService.deleteRefreshToken(username);
+    // Logout user from the session the refresh token belongs to, or from every
+    // session when there is no session to go by
+    public void logoutUser(String username, String refreshToken) {
+        VerifiedToken verifiedRefreshToken = refreshToken != null ? jwtUtils.verifyToken(refreshToken) : null;
+        if (verifiedRefreshToken != null
+                && username.equals(verifiedRefreshToken.subject())
+                && verifiedRefreshToken.sessionId() != null) {
+            refreshTokenService.deleteRefreshToken(username, verifiedRefreshToken.sessionId());
+        } else {
+            refreshTokenService.deleteAllRefreshTokens(username);
+        }
     }
 
     // Forgot Password: generate and store reset code
@@ -160,9 +224,7 @@ public class AuthService {
                 .findByEmail(email)
                 .orElseThrow(() -> new BadCredentialsException("No user with that email."));
 
-        String code = String.valueOf((int) ((Math.random() * 900000) + 100000)); // 6-digit code
-        String redisKey = "RESET_CODE:" + email;
-        redisTemplate.opsForValue().set(redisKey, code, Duration.ofMinutes(10)); // expires in 10 min
+        String code = otpService.issue(OtpService.Purpose.PASSWORD_RESET, email, codeNonce(user));
 
         // Send password reset email via notification service
         try {
@@ -178,24 +240,20 @@ public class AuthService {
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     // Reset Password: verify code and update password
     public void verifyCodeAndResetPassword(String email, String code, String newPassword) {
-        String redisKey = "RESET_CODE:" + email;
-        String storedCode = redisTemplate.opsForValue().get(redisKey);
-
-        if (storedCode == null || !storedCode.equals(code)) {
+        User user = userRepository.findByEmail(email).orElse(null);
+        // Consumes the code on a match, so it cannot be used twice
+        if (user == null || !otpService.verify(OtpService.Purpose.PASSWORD_RESET, email, codeNonce(user), code)) {
             throw new IllegalArgumentException("Invalid or expired reset code");
         }
 
-        User user = userRepository
-                .findByEmail(email)
-                .orElseThrow(() -> new IllegalArgumentException("User not found by this email!"));
-
         String encoded = passwordEncoder.encode(newPassword);
         user.setEncryptedPassword(encoded);
+        user.setPasswordChangedAt(Instant.now());
         user.setUpdatedAt(Instant.now());
         userRepository.saveAndFlush(user);
+        principalCache.invalidate(email);
 
-        redisTemplate.delete(redisKey); // invalidate used code
-        refreshTokenService.deleteRefreshToken(email);
+        refreshTokenService.deleteAllRefreshTokens(email); // sign out every device
     }
 
     // Generate email verification code
@@ -208,27 +266,18 @@ public class AuthService {
             throw new IllegalArgumentException("Email is already confirmed");
         }
 
-        String code = String.valueOf((int) ((Math.random() * 900000) + 100000)); // 6-digit code
-        String redisKey = "VERIFICATION_CODE:" + email;
-        redisTemplate.opsForValue().set(redisKey, code, Duration.ofMinutes(10)); // expires in 10 min
-
-        return code;
+        return otpService.issue(OtpService.Purpose.EMAIL_VERIFICATION, email, codeNonce(user));
     }
 
     // Confirm email with OTP
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void confirmEmail(String email, String otp) {
-        String redisKey = "VERIFICATION_CODE:" + email;
-        String storedCode = redisTemplate.opsForValue().get(redisKey);
-
-        if (storedCode == null || !storedCode.equals(otp)) {
+        User user = userRepository.findByEmail(email).orElse(null);
+        // Consumes the code on a match, so it cannot be used twice
+        if (user == null || !otpService.verify(OtpService.Purpose.EMAIL_VERIFICATION, email, codeNonce(user), otp)) {
             throw new IllegalArgumentException("Invalid or expired verification code");
         }
 
-        User user = userRepository
-                .findByEmail(email)
-                .orElseThrow(() -> new IllegalArgumentException("User not found by this email!"));
-
         if (user.isEmailConfirmed()) {
             throw new IllegalArgumentException("Email is already confirmed");
         }
@@ -236,8 +285,7 @@ public class AuthService {
         user.setEmailConfirmed(true);
         user.setUpdatedAt(Instant.now());
         userRepository.saveAndFlush(user);
-
-        redisTemplate.delete(redisKey); // invalidate used code
+        principalCache.invalidate(email);
 
         // Send welcome email after confirmation
         try {
@@ -289,4 +337,11 @@ public class AuthService {
         // Email is available if it doesn't exist in either table
         return !existsInUsers && !existsInSocialUsers;
     }
+
+    // Stateless codes are tied to when the password was last set, so a reset
+    // voids every code issued before it; a rehash on login leaves them valid
+    private static String codeNonce(User user) {
+        Instant changedAt = user.getPasswordChangedAt();
+        return user.getId() + ":" + (changedAt != null ? changedAt.toEpochMilli() : 0);
+    }
 }
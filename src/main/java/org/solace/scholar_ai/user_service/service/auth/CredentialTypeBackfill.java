@@ -0,0 +1,39 @@
+package org.solace.scholar_ai.user_service.service.auth;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.solace.scholar_ai.user_service.repository.UserRepository;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Marks social accounts created before {@code users.credential_type} existed.
+ *
+ * <p>The schema is managed by Hibernate ({@code ddl-auto: update}) with Flyway
+ * turned off, so the backfill in {@code V7__Add_credential_type_to_users.sql}
+ * never runs: Hibernate adds the column with its {@code PASSWORD} default and
+ * every existing Google or GitHub account would be treated as a password
+ * account. This runs the same backfill on every startup instead; it is
+ * idempotent and a no-op once all such accounts are marked.
+ */
+@Component
+@RequiredArgsConstructor
+public class CredentialTypeBackfill implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(CredentialTypeBackfill.class);
+
+    private final UserRepository userRepository;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            int marked = userRepository.markLegacySocialAccounts();
+            if (marked > 0) {
+                logger.info("Marked {} existing social account(s) with the SOCIAL credential type", marked);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to backfill credential types of existing social accounts", e);
+        }
+    }
+}
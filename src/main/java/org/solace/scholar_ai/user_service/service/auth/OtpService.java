@@ -0,0 +1,213 @@
+package org.solace.scholar_ai.user_service.service.auth;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.solace.scholar_ai.user_service.config.RedisCircuitBreaker;
+import org.solace.scholar_ai.user_service.exception.CustomException;
+import org.solace.scholar_ai.user_service.exception.ErrorCode;
+import org.solace.scholar_ai.user_service.exception.RetryLaterException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+/**
+ * One-time codes sent by email, for confirming an address or resetting a
+ * password. A code is checked, its failed attempt counted and, on a match,
+ * consumed in a single Lua call, so two submissions cannot both use it.
+ * After {@code max-attempts} wrong guesses the code is burned and the email
+ * is locked out of that purpose, new codes included, for {@code lockout-ms}.
+ *
+ * <p>Codes are six digits from {@link SecureRandom}. With
+ * {@code spring.app.otp.stateless.enabled} they are derived instead by
+ * {@link StatelessOtpCodes}, so issuing one costs no Redis write; there is
+ * then no per-code attempt counter, and guessing is held back only by
+ * {@link org.solace.scholar_ai.user_service.security.AuthRateLimiter}.
+ */
+@Service
+public class OtpService {
+    private static final Logger logger = LoggerFactory.getLogger(OtpService.class);
+
+    /**
+     * What a code is for; each purpose has its own codes and lockout.
+     */
+    public enum Purpose {
+        // Not the old VERIFICATION_CODE/RESET_CODE keys, which hold plain strings
+        EMAIL_VERIFICATION("otp:verification:"),
+        PASSWORD_RESET("otp:reset:");
+
+        private final String keyPrefix;
+
+        Purpose(String keyPrefix) {
+            this.keyPrefix = keyPrefix;
+        }
+    }
+
+    // KEYS: code hash, lockout key. ARGV: code, ttl ms.
+    // Returns 0, or the ms left on the lockout if the code was not issued.
+    private static final String ISSUE_LUA =
+            """
+            local locked = redis.call('PTTL', KEYS[2])
+            if locked > 0 then
+              return locked
+            end
+            redis.call('DEL', KEYS[1])
+            redis.call('HSET', KEYS[1], 'code', ARGV[1], 'attempts', 0)
+            redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            return 0
+            """;
+
+    // KEYS: code hash, lockout key. ARGV: submitted code, max attempts, lockout ms.
+    // Returns {'OK'} and deletes the code on a match, {'MISMATCH', attempts
+    // left}, {'MISSING'}, or {'LOCKED', ms left} once attempts run out.
+    private static final String VERIFY_LUA =
+            """
+            local locked = redis.call('PTTL', KEYS[2])
+            if locked > 0 then
+              return {'LOCKED', tostring(locked)}
+            end
+            local code = redis.call('HGET', KEYS[1], 'code')
+            if not code then
+              return {'MISSING'}
+            end
+            if code == ARGV[1] then
+              redis.call('DEL', KEYS[1])
+              return {'OK'}
+            end
+            local attempts = redis.call('HINCRBY', KEYS[1], 'attempts', 1)
+            if attempts >= tonumber(ARGV[2]) then
+              redis.call('DEL', KEYS[1])
+              redis.call('SET', KEYS[2], '1', 'PX', ARGV[3])
+              return {'LOCKED', ARGV[3]}
+            end
+            return {'MISMATCH', tostring(tonumber(ARGV[2]) - attempts)}
+            """;
+
+    private static final RedisScript<Long> ISSUE = new DefaultRedisScript<>(ISSUE_LUA, Long.class);
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final RedisScript<List<String>> VERIFY =
+            (RedisScript) new DefaultRedisScript<>(VERIFY_LUA, List.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisCircuitBreaker redisCircuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private final StatelessOtpCodes statelessCodes;
+    private final SecureRandom random = new SecureRandom();
+    private final long ttlMs;
+    private final int maxAttempts;
+    private final long lockoutMs;
+
+    public OtpService(
+            RedisTemplate<String, String> redisTemplate,
+            RedisCircuitBreaker redisCircuitBreaker,
+            MeterRegistry meterRegistry,
+            StatelessOtpCodes statelessCodes,
+            @Value("${spring.app.otp.ttl-ms:600000}") long ttlMs,
+            @Value("${spring.app.otp.max-attempts:5}") int maxAttempts,
+            @Value("${spring.app.otp.lockout-ms:900000}") long lockoutMs) {
+        this.redisTemplate = redisTemplate;
+        this.redisCircuitBreaker = redisCircuitBreaker;
+        this.meterRegistry = meterRegistry;
+        this.statelessCodes = statelessCodes;
+        this.ttlMs = ttlMs;
+        this.maxAttempts = maxAttempts;
+        this.lockoutMs = lockoutMs;
+    }
+
+    /**
+     * Generates and stores a new code, replacing any earlier one for the same
+     * email and purpose.
+     *
+     * @param nonce Changes whenever earlier codes should stop working, e.g.
+     *              with the account's password hash; only stateless codes
+     *              use it.
+     * @return The code to send to the user.
+     * @throws RetryLaterException While the email is locked out.
+     */
+    public String issue(Purpose purpose, String email, String nonce) {
+        if (statelessCodes.isEnabled()) {
+            return statelessCodes.issue(purpose, email, nonce);
+        }
+        String code = String.valueOf(100_000 + random.nextInt(900_000));
+        Long lockedMs = redisCircuitBreaker.execute(
+                () -> redisTemplate.execute(ISSUE, keys(purpose, email), code, String.valueOf(ttlMs)),
+                OtpService::codesUnavailable);
+        if (lockedMs != null && lockedMs > 0) {
+            throw lockedOut(purpose, lockedMs);
+        }
+        return code;
+    }
+
+    /**
+     * Checks a submitted code and consumes it if it matches.
+     *
+     * @param nonce The same nonce the code was issued with.
+     * @return True if the code matched and has been used up; false if it was
+     *         wrong, expired or never issued.
+     * @throws RetryLaterException If this or earlier wrong guesses used up
+     *                             the allowed attempts.
+     */
+    public boolean verify(Purpose purpose, String email, String nonce, String submittedCode) {
+        if (submittedCode == null) {
+            return false;
+        }
+        if (statelessCodes.isEnabled()) {
+            boolean valid = statelessCodes.verify(purpose, email, nonce, submittedCode);
+            countVerification(purpose, valid ? "OK" : "MISMATCH");
+            return valid;
+        }
+        List<String> result = redisCircuitBreaker.execute(
+                () -> redisTemplate.execute(
+                        VERIFY,
+                        keys(purpose, email),
+                        submittedCode,
+                        String.valueOf(maxAttempts),
+                        String.valueOf(lockoutMs)),
+                OtpService::codesUnavailable);
+
+        String outcome = result.get(0);
+        countVerification(purpose, outcome);
+        return switch (outcome) {
+            case "OK" -> true;
+            case "LOCKED" -> {
+                logger.warn("One-time codes for {} locked after too many wrong attempts: {}", purpose, email);
+                throw lockedOut(purpose, Long.parseLong(result.get(1)));
+            }
+            default -> false;
+        };
+    }
+
+    private void countVerification(Purpose purpose, String outcome) {
+        meterRegistry
+                .counter("auth.otp.verifications", "purpose", purpose.name(), "outcome", outcome)
+                .increment();
+    }
+
+    private static List<String> keys(Purpose purpose, String email) {
+        return List.of(purpose.keyPrefix + email, purpose.keyPrefix + "locked:" + email);
+    }
+
+    private static RetryLaterException lockedOut(Purpose purpose, long lockedMs) {
+        return new RetryLaterException(
+                purpose == Purpose.PASSWORD_RESET
+                        ? "Too many wrong reset codes. Please request a new code later."
+                        : "Too many wrong verification codes. Please request a new code later.",
+                HttpStatus.TOO_MANY_REQUESTS,
+                ErrorCode.TOO_MANY_REQUESTS,
+                Duration.ofMillis(lockedMs));
+    }
+
+    private static <T> T codesUnavailable() {
+        throw new CustomException(
+                "Verification codes are temporarily unavailable, please try again shortly",
+                HttpStatus.SERVICE_UNAVAILABLE,
+                ErrorCode.SERVICE_UNAVAILABLE);
+    }
+}
@@ -0,0 +1,137 @@
+package org.solace.scholar_ai.user_service.service.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.solace.scholar_ai.user_service.config.RedisCircuitBreaker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-process, size-bounded and TTL-bounded cache of {@link PrincipalSnapshot}s.
+ * Writes that change a cached field call {@link #invalidate(String)}, which
+ * evicts the entry locally and broadcasts the eviction to every other replica
+ * over a Redis pub/sub channel.
+ */
+@Component
+public class PrincipalCache implements MessageListener {
+    private static final Logger logger = LoggerFactory.getLogger(PrincipalCache.class);
+    private static final String INVALIDATION_CHANNEL = "user-service:principal-invalidations";
+    private static final char MESSAGE_SEPARATOR = '|';
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final RedisCircuitBreaker redisCircuitBreaker;
+    private final Cache<String, PrincipalSnapshot> cache;
+    private final AtomicLong lastInvalidationLagMs = new AtomicLong();
+
+    public PrincipalCache(
+            RedisTemplate<String, String> redisTemplate,
+            RedisMessageListenerContainer listenerContainer,
+            RedisCircuitBreaker redisCircuitBreaker,
+            MeterRegistry meterRegistry,
+            @Value("${spring.app.principal-cache.max-size:10000}") long maxSize,
+            @Value("${spring.app.principal-cache.ttl-ms:60000}") long ttlMs) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.redisCircuitBreaker = redisCircuitBreaker;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "user.principals");
+        Gauge.builder("user.principals.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Fraction of principal lookups answered without a database query")
+                .register(meterRegistry);
+        Gauge.builder("user.principals.cache.invalidation.lag", lastInvalidationLagMs, AtomicLong::get)
+                .description("Delay between publishing and receiving the latest principal invalidation")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    /**
+     * Returns the cached snapshot for a user, loading it on a miss.
+     *
+     * @param email  The user's email.
+     * @param loader Loads the snapshot from the database.
+     * @return The principal snapshot.
+     */
+    public PrincipalSnapshot get(String email, Function<String, PrincipalSnapshot> loader) {
+        return cache.get(email, loader);
+    }
+
+    /**
+     * Evicts a user's snapshot on this replica and on every other replica.
+     * Inside a transaction the broadcast is deferred until after commit, so
+     * other replicas cannot reload the old row before it is replaced.
+     *
+     * @param email The user's email.
+     */
+    public void invalidate(String email) {
+        cache.invalidate(email);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(email);
+                    publishInvalidation(email);
+                }
+            });
+        } else {
+            publishInvalidation(email);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(MESSAGE_SEPARATOR);
+        if (separator < 0) {
+            logger.warn("Ignoring malformed principal invalidation message: {}", body);
+            return;
+        }
+
+        String email = body.substring(separator + 1);
+        cache.invalidate(email);
+
+        try {
+            long publishedAt = Long.parseLong(body.substring(0, separator));
+            lastInvalidationLagMs.set(Math.max(0, System.currentTimeMillis() - publishedAt));
+        } catch (NumberFormatException e) {
+            logger.warn("Principal invalidation for user: {} has no valid timestamp", email);
+        }
+        logger.debug("Evicted cached principal for user: {}", email);
+    }
+
+    private void publishInvalidation(String email) {
+        // Without Redis, other replicas fall back to the cache TTL
+        redisCircuitBreaker.run(
+                () -> redisTemplate.convertAndSend(
+                        INVALIDATION_CHANNEL, String.valueOf(System.currentTimeMillis()) + MESSAGE_SEPARATOR + email),
+                () -> logger.warn("Redis unavailable, principal invalidation for user: {} not broadcast", email));
+    }
+}
@@ -0,0 +1,38 @@
+package org.solace.scholar_ai.user_service.service.auth;
+
+import java.util.List;
+import java.util.UUID;
+import org.solace.scholar_ai.user_service.model.UserRole;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Immutable snapshot of the fields needed to authenticate a request.
+ * It deliberately carries no password hash, so it can be cached and rebuilt
+ * from token claims without ever exposing credentials.
+ *
+ * @param userId         The user's id.
+ * @param email          The user's email (the principal name).
+ * @param role           The user's role.
+ * @param emailConfirmed Whether the user has confirmed their email.
+ * @param socialUser     Whether the user signs in through an identity provider.
+ */
+public record PrincipalSnapshot(UUID userId, String email, UserRole role, boolean emailConfirmed, boolean socialUser) {
+
+    /**
+     * Converts the snapshot into the {@link UserDetails} placed in the security
+     * context.
+     *
+     * @return User details with an empty password.
+     */
+    public UserDetails toUserDetails() {
+        return new org.springframework.security.core.userdetails.User(
+                email,
+                "",
+                emailConfirmed, // enabled
+                true, // accountNonExpired
+                true, // credentialsNonExpired
+                true, // accountNonLocked
+                List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
+    }
+}
@@ -1,89 +1,474 @@
 package org.solace.scholar_ai.user_service.service.auth;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.solace.scholar_ai.user_service.config.RedisCircuitBreaker;
+import org.solace.scholar_ai.user_service.dto.auth.SessionDTO;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 
+/**
+ * Stores refresh tokens as one session per device.
+ *
+ * <p>Each session is a hash {@code session:{email}:<sessionId>} holding the
+ * current refresh token, the device name and timestamps, and expires with the
+ * token. A sorted set {@code sessions:{email}} indexes a user's session ids by
+ * last use, which gives LRU eviction once the user exceeds
+ * {@code spring.app.sessions.max-per-user}. The braces make the email a cluster
+ * hash tag, so the scripts below can touch all of a user's keys atomically.
+ *
+ * <p>Refresh tokens rotate on every use. The session is the token family: it
+ * remembers the token it last replaced, so a refresh that races a rotation
+ * from another tab within the grace window gets the same new pair, while any
+ * other reuse of a replaced token revokes the session.
+ *
+ * <p>Refresh tokens issued before sessions existed carry no session id and are
+ * still checked against the old {@code refresh_token:{email}} key.
+ */
 @Service
 public class RefreshTokenService {
     private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
     private static final String REDIS_REFRESH_TOKEN_PREFIX = "refresh_token";
+    private static final String SESSION_KEY_PREFIX = "session:";
+    private static final String SESSIONS_KEY_PREFIX = "sessions:";
+
+    // KEYS: session hash, user index. ARGV: session id, token, device, now, ttl,
+    // max sessions, session key prefix. Returns the number of evicted sessions.
+    private static final String SAVE_SESSION_LUA =
+            """
+            local created = redis.call('HGET', KEYS[1], 'createdAt') or ARGV[4]
+            redis.call('HSET', KEYS[1], 'token', ARGV[2], 'createdAt', created, 'lastSeenAt', ARGV[4])
+            if ARGV[3] ~= '' then
+              redis.call('HSET', KEYS[1], 'device', ARGV[3])
+            end
+            redis.call('PEXPIRE', KEYS[1], ARGV[5])
+            redis.call('ZADD', KEYS[2], ARGV[4], ARGV[1])
+            redis.call('ZREMRANGEBYSCORE', KEYS[2], '-inf', tonumber(ARGV[4]) - tonumber(ARGV[5]))
+            local excess = redis.call('ZCARD', KEYS[2]) - tonumber(ARGV[6])
+            if excess > 0 then
+              for _, sid in ipairs(redis.call('ZRANGE', KEYS[2], 0, excess - 1)) do
+                redis.call('DEL', ARGV[7] .. sid)
+                redis.call('ZREM', KEYS[2], sid)
+              end
+            else
+              excess = 0
+            end
+            redis.call('PEXPIRE', KEYS[2], ARGV[5])
+            return excess
+            """;
+
+    // KEYS: session hash, user index. ARGV: session id. Returns the sessions left.
+    private static final String REVOKE_SESSION_LUA =
+            """
+            redis.call('DEL', KEYS[1])
+            redis.call('ZREM', KEYS[2], ARGV[1])
+            return redis.call('ZCARD', KEYS[2])
+            """;
+
+    // KEYS: user index, legacy key. ARGV: session key prefix. Returns the sessions revoked.
+    private static final String REVOKE_ALL_LUA =
+            """
+            local sids = redis.call('ZRANGE', KEYS[1], 0, -1)
+            for _, sid in ipairs(sids) do
+              redis.call('DEL', ARGV[1] .. sid)
+            end
+            redis.call('DEL', KEYS[1], KEYS[2])
+            return #sids
+            """;
+
+    // KEYS: session hash, user index. ARGV: session id, presented token, new
+    // refresh token, new access token, now, ttl, grace ms. Returns the outcome
+    // and, unless the session is gone, the refresh and access token to hand out.
+    private static final String ROTATE_LUA =
+            """
+            local current = redis.call('HGET', KEYS[1], 'token')
+            if not current then
+              return {'UNKNOWN'}
+            end
+            if current == ARGV[2] then
+              redis.call('HSET', KEYS[1], 'token', ARGV[3], 'previousToken', ARGV[2],
+                'rotatedAccessToken', ARGV[4], 'rotatedAt', ARGV[5], 'lastSeenAt', ARGV[5])
+              redis.call('PEXPIRE', KEYS[1], ARGV[6])
+              redis.call('ZADD', KEYS[2], ARGV[5], ARGV[1])
+              redis.call('PEXPIRE', KEYS[2], ARGV[6])
+              return {'ROTATED', ARGV[3], ARGV[4]}
+            end
+            local rotated = redis.call('HMGET', KEYS[1], 'previousToken', 'rotatedAccessToken', 'rotatedAt')
+            if rotated[1] == ARGV[2] and tonumber(ARGV[5]) - tonumber(rotated[3]) <= tonumber(ARGV[7]) then
+              return {'GRACE', current, rotated[2]}
+            end
+            redis.call('DEL', KEYS[1])
+            redis.call('ZREM', KEYS[2], ARGV[1])
+            return {'REUSED'}
+            """;
+
+    private static final RedisScript<Long> SAVE_SESSION = new DefaultRedisScript<>(SAVE_SESSION_LUA, Long.class);
+    private static final RedisScript<Long> REVOKE_SESSION = new DefaultRedisScript<>(REVOKE_SESSION_LUA, Long.class);
+    private static final RedisScript<Long> REVOKE_ALL = new DefaultRedisScript<>(REVOKE_ALL_LUA, Long.class);
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final RedisScript<List<String>> ROTATE =
+            (RedisScript) new DefaultRedisScript<>(ROTATE_LUA, List.class);
+
     private final RedisTemplate<String, String> redisTemplate;
+    private final SessionPresenceRegistry sessionPresenceRegistry;
+    private final RedisCircuitBreaker redisCircuitBreaker;
+    private final long refreshTokenValidityMs;
+    private final int maxSessionsPerUser;
+    private final long rotationGraceMs;
+    private final Map<RotationOutcome, Counter> rotationCounters = new EnumMap<>(RotationOutcome.class);
+
+    // Fallback storage for when Redis is unavailable, keyed by the Redis key the
+    // change applies to, and replayed into Redis once it is back. Saved tokens
+    // are bounded, expire with the token, and are softly referenced so the GC
+    // can reclaim them under memory pressure; losing one only signs that device
+    // out. Revocations are held strongly and never evicted, only dropped once
+    // replayed or once the tokens they revoke have expired, since losing one
+    // would bring a revoked session back when Redis recovers.
+    private final Cache<String, FallbackEntry> fallbackStorage;
+    private final Map<String, FallbackEntry> fallbackRevocations = new ConcurrentHashMap<>();
 
-    // Fallback in-memory storage for when Redis is unavailable
-    private final ConcurrentHashMap<String, String> fallbackStorage = new ConcurrentHashMap<>();
+    /**
+     * A write that could not reach Redis. A null token records a revocation of
+     * the session, or of all the user's sessions when the session id is null too.
+     */
+    private record FallbackEntry(String username, String sessionId, String token, String deviceName, long expiresAt) {}
+
+    public enum RotationOutcome {
+        /** The presented token was current and has been replaced. */
+        ROTATED,
+        /** The presented token was replaced moments ago; the same new pair is returned. */
+        GRACE,
+        /** The presented token was replaced earlier, so the session has been revoked. */
+        REUSED,
+        /** The session does not exist or has been revoked. */
+        UNKNOWN
+    }
 
-    @Value("${spring.app.refresh.expiration-ms}")
-    private long refreshTokenValidityMs;
+    /**
+     * The result of a rotation. The tokens are set for {@link RotationOutcome#ROTATED}
+     * and {@link RotationOutcome#GRACE} only.
+     */
+    public record Rotation(RotationOutcome outcome, String refreshToken, String accessToken) {}
 
-    public RefreshTokenService(RedisTemplate<String, String> redisTemplate) {
+    public RefreshTokenService(
+            RedisTemplate<String, String> redisTemplate,
+            SessionPresenceRegistry sessionPresenceRegistry,
+            RedisCircuitBreaker redisCircuitBreaker,
+            MeterRegistry meterRegistry,
+            @Value("${spring.app.refresh.expiration-ms}") long refreshTokenValidityMs,
+            @Value("${spring.app.refresh.fallback.max-size:10000}") long fallbackMaxSize,
+            @Value("${spring.app.sessions.max-per-user:10}") int maxSessionsPerUser,
+            @Value("${spring.app.refresh.rotation-grace-ms:10000}") long rotationGraceMs) {
         this.redisTemplate = redisTemplate;
+        this.sessionPresenceRegistry = sessionPresenceRegistry;
+        this.redisCircuitBreaker = redisCircuitBreaker;
+        this.refreshTokenValidityMs = refreshTokenValidityMs;
+        this.maxSessionsPerUser = maxSessionsPerUser;
+        this.rotationGraceMs = rotationGraceMs;
+        this.fallbackStorage = Caffeine.newBuilder()
+                .maximumSize(fallbackMaxSize)
+                .expireAfterWrite(Duration.ofMillis(refreshTokenValidityMs))
+                .softValues()
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, fallbackStorage, "user.refresh-tokens.fallback");
+        Gauge.builder("user.refresh-tokens.fallback.revocations", fallbackRevocations, Map::size)
+                .description("Session revocations waiting to be replayed into Redis")
+                .register(meterRegistry);
+        for (RotationOutcome outcome : RotationOutcome.values()) {
+            rotationCounters.put(
+                    outcome,
+                    Counter.builder("user.refresh-tokens.rotations")
+                            .description("Refresh token rotations by outcome")
+                            .tag("outcome", outcome.name().toLowerCase())
+                            .register(meterRegistry));
+        }
+    }
+
+    @PostConstruct
+    void registerReplay() {
+        redisCircuitBreaker.onClose(this::replayFallbackStorage);
+    }
+
+    /**
+     * @return A new, unguessable session id.
+     */
+    public String newSessionId() {
+        return UUID.randomUUID().toString();
     }
 
-    public void saveRefreshToken(String username, String refreshToken) {
+    /**
+     * Stores the current refresh token of a session, creating the session if
+     * needed. If the user now has more sessions than allowed, the least recently
+     * used ones are revoked.
+     *
+     * @param username     The user's email.
+     * @param sessionId    The session id carried in the refresh token.
+     * @param refreshToken The refresh token.
+     * @param deviceName   A label for the device, or null to keep the current one.
+     */
+    public void saveRefreshToken(String username, String sessionId, String refreshToken, String deviceName) {
         Assert.notNull(username, "Username cannot be null");
+        Assert.notNull(sessionId, "Session id cannot be null");
         Assert.notNull(refreshToken, "Refresh token cannot be null");
 
-        try {
-            String key = REDIS_REFRESH_TOKEN_PREFIX + ":" + username;
-            redisTemplate.opsForValue().set(key, refreshToken, Duration.ofMillis(refreshTokenValidityMs));
-            logger.debug("Saved refresh token for user: {} in Redis", username);
-        } catch (Exception e) {
-            logger.warn("Failed to save refresh token in Redis for user: {}, using fallback storage", username, e);
-            // Fallback to in-memory storage
-            fallbackStorage.put(username, refreshToken);
+        String key = sessionKey(username, sessionId);
+        long now = System.currentTimeMillis();
+        redisCircuitBreaker.run(
+                () -> {
+                    Long evicted = redisTemplate.execute(
+                            SAVE_SESSION,
+                            List.of(key, sessionsKey(username)),
+                            sessionId,
+                            refreshToken,
+                            deviceName != null ? deviceName : "",
+                            String.valueOf(now),
+                            String.valueOf(refreshTokenValidityMs),
+                            String.valueOf(maxSessionsPerUser),
+                            sessionKeyPrefix(username));
+                    fallbackStorage.invalidate(key);
+                    if (evicted != null && evicted > 0) {
+                        logger.info("Evicted {} least recently used session(s) for user: {}", evicted, username);
+                    }
+                    logger.debug("Saved refresh token for user: {} session: {} in Redis", username, sessionId);
+                },
+                () -> {
+                    logger.warn("Redis unavailable, saving refresh token for user: {} in fallback storage", username);
+                    fallbackStorage.put(
+                            key,
+                            new FallbackEntry(
+                                    username, sessionId, refreshToken, deviceName, now + refreshTokenValidityMs));
+                });
+        sessionPresenceRegistry.markPresent(username, now + refreshTokenValidityMs);
+    }
+
+    /**
+     * Replaces the presented refresh token of a session with a new one in a
+     * single compare-and-swap. The caller mints the new pair up front; it is
+     * discarded unless the outcome is {@link RotationOutcome#ROTATED}.
+     *
+     * @param username        The user's email.
+     * @param sessionId       The session id from the presented token.
+     * @param presentedToken  The refresh token the client sent.
+     * @param newRefreshToken The refresh token to store.
+     * @param newAccessToken  The access token to hand out with it.
+     * @return The outcome and the pair to return to the client.
+     */
+    public Rotation rotateRefreshToken(
+            String username, String sessionId, String presentedToken, String newRefreshToken, String newAccessToken) {
+        Assert.notNull(username, "Username cannot be null");
+        Assert.notNull(sessionId, "Session id cannot be null");
+        Assert.notNull(presentedToken, "Refresh token cannot be null");
+
+        String key = sessionKey(username, sessionId);
+        Rotation rotation;
+        if (fallbackStorage.getIfPresent(key) != null
+                || fallbackRevocations.containsKey(key)
+                || fallbackRevocations.containsKey(sessionsKey(username))) {
+            // Redis has not seen this session's latest state yet
+            rotation = rotateLocally(username, sessionId, presentedToken, newRefreshToken, newAccessToken);
+        } else {
+            long now = System.currentTimeMillis();
+            rotation = redisCircuitBreaker.execute(
+                    () -> toRotation(redisTemplate.execute(
+                            ROTATE,
+                            List.of(key, sessionsKey(username)),
+                            sessionId,
+                            presentedToken,
+                            newRefreshToken,
+                            newAccessToken,
+                            String.valueOf(now),
+                            String.valueOf(refreshTokenValidityMs),
+                            String.valueOf(rotationGraceMs))),
+                    () -> rotateLocally(username, sessionId, presentedToken, newRefreshToken, newAccessToken));
+        }
+
+        rotationCounters.get(rotation.outcome()).increment();
+        switch (rotation.outcome()) {
+            case ROTATED -> sessionPresenceRegistry.markPresent(
+                    username, System.currentTimeMillis() + refreshTokenValidityMs);
+            case REUSED -> logger.warn(
+                    "Refresh token reuse detected for user: {}, revoked session: {}", username, sessionId);
+            default -> {}
+        }
+        return rotation;
+    }
+
+    // Without Redis there is no previous token to compare against, so this only
+    // rotates a current token and cannot tell reuse from an unknown session
+    private Rotation rotateLocally(
+            String username, String sessionId, String presentedToken, String newRefreshToken, String newAccessToken) {
+        if (!isRefreshTokenValid(username, sessionId, presentedToken)) {
+            return new Rotation(RotationOutcome.UNKNOWN, null, null);
         }
+        saveRefreshToken(username, sessionId, newRefreshToken, null);
+        return new Rotation(RotationOutcome.ROTATED, newRefreshToken, newAccessToken);
     }
 
-    public String getRefreshToken(String username) {
+    private static Rotation toRotation(List<String> result) {
+        RotationOutcome outcome = RotationOutcome.valueOf(result.get(0));
+        return result.size() == 3
+                ? new Rotation(outcome, result.get(1), result.get(2))
+                : new Rotation(outcome, null, null);
+    }
+
+    /**
+     * @param username  The user's email.
+     * @param sessionId The session id, or null for a token issued before
+     *                  sessions existed.
+     * @return The current refresh token of the session, or null if there is none.
+     */
+    public String getRefreshToken(String username, String sessionId) {
         Assert.notNull(username, "Username cannot be null");
 
-        try {
-            String key = REDIS_REFRESH_TOKEN_PREFIX + ":" + username;
-            String token = redisTemplate.opsForValue().get(key);
-            if (token != null) {
-                logger.debug("Retrieved refresh token for user: {} from Redis", username);
-                return token;
-            }
-        } catch (Exception e) {
-            logger.warn("Failed to get refresh token from Redis for user: {}, trying fallback storage", username, e);
+        if (sessionId == null) {
+            String legacyKey = legacyKey(username);
+            return redisCircuitBreaker.execute(() -> redisTemplate.opsForValue().get(legacyKey), () -> null);
         }
 
-        // Fallback to in-memory storage
-        String fallbackToken = fallbackStorage.get(username);
-        if (fallbackToken != null) {
+        // A fallback entry is newer than whatever Redis holds for the session
+        String key = sessionKey(username, sessionId);
+        if (fallbackRevocations.containsKey(key)) {
+            return null;
+        }
+        FallbackEntry fallbackEntry = fallbackStorage.getIfPresent(key);
+        if (fallbackEntry != null) {
             logger.debug("Retrieved refresh token for user: {} from fallback storage", username);
+            return fallbackEntry.token();
         }
-        return fallbackToken;
+        if (fallbackRevocations.containsKey(sessionsKey(username))) {
+            // All sessions were revoked during an outage that has not been replayed yet
+            return null;
+        }
+
+        String token = redisCircuitBreaker.execute(
+                () -> (String) redisTemplate.opsForHash().get(key, "token"), () -> null);
+        if (token != null) {
+            logger.debug("Retrieved refresh token for user: {} from Redis", username);
+        }
+        return token;
     }
 
-    public void deleteRefreshToken(String username) {
+    /**
+     * Revokes one session.
+     *
+     * @param username  The user's email.
+     * @param sessionId The session to revoke.
+     */
+    public void deleteRefreshToken(String username, String sessionId) {
         Assert.notNull(username, "Username cannot be null");
+        Assert.notNull(sessionId, "Session id cannot be null");
 
-        try {
-            String key = REDIS_REFRESH_TOKEN_PREFIX + ":" + username;
-            redisTemplate.delete(key);
-            logger.debug("Deleted refresh token for user: {} from Redis", username);
-        } catch (Exception e) {
-            logger.warn("Failed to delete refresh token from Redis for user: {}, trying fallback storage", username, e);
+        String key = sessionKey(username, sessionId);
+        Long remaining = redisCircuitBreaker.execute(
+                () -> {
+                    Long left = redisTemplate.execute(REVOKE_SESSION, List.of(key, sessionsKey(username)), sessionId);
+                    fallbackStorage.invalidate(key);
+                    fallbackRevocations.remove(key);
+                    logger.debug("Revoked session: {} for user: {} in Redis", sessionId, username);
+                    return left;
+                },
+                () -> {
+                    // Remember the revocation so it is applied to Redis on replay
+                    logger.warn("Redis unavailable, recording revocation of a session for user: {}", username);
+                    fallbackStorage.invalidate(key);
+                    recordRevocation(key, username, sessionId);
+                    return null;
+                });
+        if (remaining != null && remaining == 0) {
+            sessionPresenceRegistry.markAbsent(username);
         }
+    }
 
-        // Also delete from fallback storage
-        fallbackStorage.remove(username);
-        logger.debug("Deleted refresh token for user: {} from fallback storage", username);
+    /**
+     * Revokes every session of a user, including a token issued before sessions
+     * existed, in one round trip.
+     *
+     * @param username The user's email.
+     */
+    public void deleteAllRefreshTokens(String username) {
+        Assert.notNull(username, "Username cannot be null");
+
+        String key = sessionsKey(username);
+        fallbackStorage.asMap().values().removeIf(entry -> entry.username().equals(username));
+        fallbackRevocations.values().removeIf(entry -> entry.username().equals(username));
+        redisCircuitBreaker.run(
+                () -> {
+                    Long revoked = redisTemplate.execute(
+                            REVOKE_ALL, List.of(key, legacyKey(username)), sessionKeyPrefix(username));
+                    logger.debug("Revoked {} session(s) for user: {} in Redis", revoked, username);
+                },
+                () -> {
+                    logger.warn("Redis unavailable, recording revocation of all sessions for user: {}", username);
+                    recordRevocation(key, username, null);
+                });
+        sessionPresenceRegistry.markAbsent(username);
+    }
+
+    // A revocation outlives every token it can apply to once the refresh
+    // validity has passed, so only then is it safe to forget unreplayed
+    private void recordRevocation(String key, String username, String sessionId) {
+        long now = System.currentTimeMillis();
+        fallbackRevocations.values().removeIf(entry -> entry.expiresAt() <= now);
+        fallbackRevocations.put(key, new FallbackEntry(username, sessionId, null, null, now + refreshTokenValidityMs));
+    }
+
+    /**
+     * Removes the refresh token a user was issued before sessions existed, once
+     * it has been exchanged for a session.
+     *
+     * @param username The user's email.
+     */
+    public void deleteLegacyRefreshToken(String username) {
+        String legacyKey = legacyKey(username);
+        redisCircuitBreaker.run(() -> redisTemplate.delete(legacyKey), () -> {});
+    }
+
+    /**
+     * Checks whether a session exists, in Redis or in the fallback storage.
+     *
+     * @param username  The user's email.
+     * @param sessionId The session id, or null for a token issued before
+     *                  sessions existed.
+     * @return True if the session has a stored refresh token.
+     */
+    public boolean hasRefreshToken(String username, String sessionId) {
+        return getRefreshToken(username, sessionId) != null;
     }
 
-    public boolean isRefreshTokenValid(String username, String refreshToken) {
+    public boolean isRefreshTokenValid(String username, String sessionId, String refreshToken) {
         Assert.notNull(username, "Username cannot be null");
         Assert.notNull(refreshToken, "Refresh token cannot be null");
 
         try {
-            String storedToken = getRefreshToken(username);
+            String storedToken = getRefreshToken(username, sessionId);
             boolean isValid = storedToken != null && storedToken.equals(refreshToken);
             logger.debug("Refresh token validation for user: {} - valid: {}", username, isValid);
             return isValid;
@@ -92,4 +477,154 @@ public class RefreshTokenService {
             return false;
         }
     }
+
+    /**
+     * Lists a user's sessions, most recently used first.
+     *
+     * @param username         The user's email.
+     * @param currentSessionId The caller's own session id, or null.
+     * @return The sessions, or an empty list if Redis is unavailable.
+     */
+    public List<SessionDTO> listSessions(String username, String currentSessionId) {
+        Assert.notNull(username, "Username cannot be null");
+
+        Set<ZSetOperations.TypedTuple<String>> index = redisCircuitBreaker.execute(
+                () -> redisTemplate.opsForZSet().reverseRangeWithScores(sessionsKey(username), 0, -1), Set::of);
+        if (index == null || index.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> sessionIds =
+                index.stream().map(ZSetOperations.TypedTuple::getValue).toList();
+        List<Object> details = redisCircuitBreaker.execute(
+                () -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    for (String sessionId : sessionIds) {
+                        connection
+                                .hashCommands()
+                                .hMGet(
+                                        bytes(sessionKey(username, sessionId)),
+                                        bytes("device"),
+                                        bytes("createdAt"),
+                                        bytes("lastSeenAt"));
+                    }
+                    return null;
+                }),
+                List::of);
+
+        List<SessionDTO> sessions = new ArrayList<>(sessionIds.size());
+        for (int i = 0; i < details.size(); i++) {
+            // A session can expire between the two reads
+            if (!(details.get(i) instanceof List<?> fields) || fields.get(2) == null) {
+                continue;
+            }
+            sessions.add(SessionDTO.builder()
+                    .sessionId(sessionIds.get(i))
+                    .deviceName((String) fields.get(0))
+                    .createdAt(toInstant(fields.get(1)))
+                    .lastSeenAt(toInstant(fields.get(2)))
+                    .current(sessionIds.get(i).equals(currentSessionId))
+                    .build());
+        }
+        return sessions;
+    }
+
+    /**
+     * Writes everything saved or revoked during a Redis outage back to Redis in
+     * one pipelined batch, then drops the replayed entries. Revocations of all
+     * sessions go first and tokens keep their remaining lifetime. Saves that
+     * reach Redis after recovery clear their fallback entry, so only changes
+     * Redis has not seen are replayed.
+     */
+    void replayFallbackStorage() {
+        Map<String, FallbackEntry> revocations = Map.copyOf(fallbackRevocations);
+        Map<String, FallbackEntry> saves = Map.copyOf(fallbackStorage.asMap());
+        List<FallbackEntry> ordered = new ArrayList<>(revocations.values());
+        ordered.addAll(saves.values());
+        if (ordered.isEmpty()) {
+            return;
+        }
+
+        ordered.sort(Comparator.comparing(entry -> entry.sessionId() != null));
+
+        long now = System.currentTimeMillis();
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (FallbackEntry entry : ordered) {
+                    String username = entry.username();
+                    long remainingMs = entry.expiresAt() - now;
+                    if (entry.sessionId() == null) {
+                        connection
+                                .scriptingCommands()
+                                .eval(
+                                        bytes(REVOKE_ALL_LUA),
+                                        ReturnType.INTEGER,
+                                        2,
+                                        bytes(sessionsKey(username)),
+                                        bytes(legacyKey(username)),
+                                        bytes(sessionKeyPrefix(username)));
+                    } else if (entry.token() == null) {
+                        connection
+                                .scriptingCommands()
+                                .eval(
+                                        bytes(REVOKE_SESSION_LUA),
+                                        ReturnType.INTEGER,
+                                        2,
+                                        bytes(sessionKey(username, entry.sessionId())),
+                                        bytes(sessionsKey(username)),
+                                        bytes(entry.sessionId()));
+                    } else if (remainingMs > 0) {
+                        connection
+                                .scriptingCommands()
+                                .eval(
+                                        bytes(SAVE_SESSION_LUA),
+                                        ReturnType.INTEGER,
+                                        2,
+                                        bytes(sessionKey(username, entry.sessionId())),
+                                        bytes(sessionsKey(username)),
+                                        bytes(entry.sessionId()),
+                                        bytes(entry.token()),
+                                        bytes(entry.deviceName() != null ? entry.deviceName() : ""),
+                                        bytes(String.valueOf(now)),
+                                        bytes(String.valueOf(remainingMs)),
+                                        bytes(String.valueOf(maxSessionsPerUser)),
+                                        bytes(sessionKeyPrefix(username)));
+                    }
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            logger.warn(
+                    "Failed to replay {} fallback session change(s) into Redis: {}", ordered.size(), e.getMessage());
+            return;
+        }
+
+        // Only drop entries that were not replaced while the batch ran
+        revocations.forEach(fallbackRevocations::remove);
+        saves.forEach((key, entry) -> fallbackStorage.asMap().remove(key, entry));
+        logger.info("Replayed {} fallback session change(s) into Redis", ordered.size());
+    }
+
+    private static String legacyKey(String username) {
+        return REDIS_REFRESH_TOKEN_PREFIX + ":" + username;
+    }
+
+    private static String sessionsKey(String username) {
+        return SESSIONS_KEY_PREFIX + "{" + username + "}";
+    }
+
+    private static String sessionKeyPrefix(String username) {
+        return SESSION_KEY_PREFIX + "{" + username + "}:";
+    }
+
+    private static String sessionKey(String username, String sessionId) {
+        return sessionKeyPrefix(username) + sessionId;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Instant toInstant(Object epochMillis) {
+        return epochMillis != null ? Instant.ofEpochMilli(Long.parseLong((String) epochMillis)) : null;
+    }
 }
@@ -0,0 +1,201 @@
+package org.solace.scholar_ai.user_service.service.auth;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.solace.scholar_ai.user_service.config.RedisCircuitBreaker;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local view of which users currently hold a refresh token, so the request
+ * path can check session presence without a Redis round trip.
+ *
+ * <p>{@link RefreshTokenService} records every save and delete here; the change
+ * is applied locally and broadcast to the other replicas over a Redis pub/sub
+ * channel. Each entry remembers its refresh token's expiry, so sessions that
+ * simply time out in Redis drop out of the view without any message. On startup
+ * the view is seeded by scanning the existing session indexes and refresh
+ * token keys.
+ */
+@Component
+public class SessionPresenceRegistry implements MessageListener {
+    private static final Logger logger = LoggerFactory.getLogger(SessionPresenceRegistry.class);
+    private static final String PRESENCE_CHANNEL = "user-service:session-presence";
+    private static final String LEGACY_KEY_PREFIX = "refresh_token:";
+    private static final String SESSIONS_KEY_PREFIX = "sessions:{";
+    private static final int SEED_BATCH_SIZE = 500;
+    private static final char MESSAGE_SEPARATOR = '|';
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final RedisCircuitBreaker redisCircuitBreaker;
+
+    // email -> epoch millis at which the refresh token expires
+    private final Map<String, Long> sessions = new ConcurrentHashMap<>();
+    private volatile boolean seeded;
+
+    public SessionPresenceRegistry(
+            RedisTemplate<String, String> redisTemplate,
+            RedisMessageListenerContainer listenerContainer,
+            RedisCircuitBreaker redisCircuitBreaker,
+            MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.redisCircuitBreaker = redisCircuitBreaker;
+
+        Gauge.builder("user.sessions.presence.size", sessions, Map::size)
+                .description("Users with a refresh token in the local session presence view")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(PRESENCE_CHANNEL));
+    }
+
+    /**
+     * Seeds the view from Redis once the application is up. Changes that
+     * arrive over pub/sub while the scan runs are kept, since they are newer.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void seed() {
+        long now = System.currentTimeMillis();
+        try {
+            // The session index expires with the user's newest session
+            int loaded = seedMatching(SESSIONS_KEY_PREFIX + "*}", now) + seedMatching(LEGACY_KEY_PREFIX + "*", now);
+            seeded = true;
+            logger.info("Seeded session presence view with {} user(s) with active sessions", loaded);
+        } catch (Exception e) {
+            // Unseeded, the view reports unknown users as present rather than guessing
+            logger.warn("Failed to seed session presence view from Redis: {}", e.getMessage());
+        }
+    }
+
+    private int seedMatching(String pattern, long now) {
+        int loaded = 0;
+        ScanOptions options =
+                ScanOptions.scanOptions().match(pattern).count(SEED_BATCH_SIZE).build();
+
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            List<String> batch = new ArrayList<>(SEED_BATCH_SIZE);
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() == SEED_BATCH_SIZE) {
+                    loaded += seedBatch(batch, now);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                loaded += seedBatch(batch, now);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Checks whether a user has an active refresh token. Answered from memory.
+     *
+     * @param email The user's email.
+     * @return True if the user has a session, or if the view has not been
+     *         seeded yet and the answer is unknown.
+     */
+    public boolean isPresent(String email) {
+        Long expiresAt = sessions.get(email);
+        if (expiresAt == null) {
+            return !seeded;
+        }
+        if (expiresAt <= System.currentTimeMillis()) {
+            sessions.remove(email, expiresAt);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Records a new or renewed session on this replica and on every other one.
+     *
+     * @param email     The user's email.
+     * @param expiresAt Epoch millis at which the refresh token expires.
+     */
+    public void markPresent(String email, long expiresAt) {
+        sessions.put(email, expiresAt);
+        publish("+" + expiresAt + MESSAGE_SEPARATOR + email);
+    }
+
+    /**
+     * Records a removed session on this replica and on every other one.
+     *
+     * @param email The user's email.
+     */
+    public void markAbsent(String email) {
+        sessions.remove(email);
+        publish("-" + MESSAGE_SEPARATOR + email);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(MESSAGE_SEPARATOR);
+        if (separator < 1) {
+            logger.warn("Ignoring malformed session presence message: {}", body);
+            return;
+        }
+
+        String email = body.substring(separator + 1);
+        if (body.charAt(0) == '-') {
+            sessions.remove(email);
+            return;
+        }
+        try {
+            sessions.put(email, Long.parseLong(body.substring(1, separator)));
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring session presence message with invalid expiry: {}", body);
+        }
+    }
+
+    private int seedBatch(List<String> keys, long now) {
+        List<Object> ttls = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                connection.keyCommands().pTtl(key.getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        });
+
+        int loaded = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            if (ttls.get(i) instanceof Long ttl && ttl > 0) {
+                String key = keys.get(i);
+                String email = key.startsWith(SESSIONS_KEY_PREFIX)
+                        ? key.substring(SESSIONS_KEY_PREFIX.length(), key.length() - 1)
+                        : key.substring(LEGACY_KEY_PREFIX.length());
+                sessions.merge(email, now + ttl, Math::max);
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    private void publish(String message) {
+        // Without Redis, other replicas catch up when the token expires or on their next restart
+        redisCircuitBreaker.run(
+                () -> redisTemplate.convertAndSend(PRESENCE_CHANNEL, message),
+                () -> logger.warn("Redis unavailable, session presence change not broadcast: {}", message));
+    }
+}
@@ -1,22 +1,24 @@
 package org.solace.scholar_ai.user_service.service.auth;
 
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
-import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.solace.scholar_ai.user_service.dto.auth.AuthResponse;
 import org.solace.scholar_ai.user_service.dto.auth.providers.GitHubEmailDTO;
 import org.solace.scholar_ai.user_service.dto.auth.providers.GitHubUserDTO;
+import org.solace.scholar_ai.user_service.model.CredentialType;
 import org.solace.scholar_ai.user_service.model.User;
 import org.solace.scholar_ai.user_service.model.UserIdentityProvider;
-import org.solace.scholar_ai.user_service.model.UserProfile;
 import org.solace.scholar_ai.user_service.model.UserRole;
-import org.solace.scholar_ai.user_service.repository.UserIdentityProviderRepository;
-import org.solace.scholar_ai.user_service.repository.UserProfileRepository;
 import org.solace.scholar_ai.user_service.repository.UserRepository;
 import org.solace.scholar_ai.user_service.security.GoogleVerifierUtil;
 import org.solace.scholar_ai.user_service.security.JwtUtils;
@@ -28,8 +30,8 @@ import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
@@ -40,13 +42,11 @@ public class SocialAuthService {
     private static final Logger logger = LoggerFactory.getLogger(SocialAuthService.class);
     private final JwtUtils jwtUtils;
     private final RefreshTokenService refreshTokenService;
-    private final UserIdentityProviderRepository userIdentityProviderRepository;
-    private final UserProfileRepository userProfileRepository;
     private final GoogleVerifierUtil googleVerifierUtil;
     private final RestTemplate restTemplate;
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
     private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${spring.github.client-id}")
     private String githubClientId;
@@ -57,6 +57,13 @@ public class SocialAuthService {
     @Value("${spring.github.redirect-uri}")
     private String githubRedirectUri;
 
+    // Point both at a stub provider (the github-stub profile serves one) for load tests
+    @Value("${spring.github.oauth-base-url:https://github.com}")
+    private String githubOAuthBaseUrl;
+
+    @Value("${spring.github.api-base-url:https://api.github.com}")
+    private String githubApiBaseUrl;
+
     public AuthResponse loginWithGoogle(String idTokenString) {
         GoogleIdToken.Payload payload = googleVerifierUtil.verify(idTokenString);
 
@@ -72,77 +79,12 @@ public class SocialAuthService {
             throw new IllegalArgumentException("Email not found in Google ID token payload.");
         }
 
-        // Check if user exists with this email
-        if (userRepository.findByEmail(email).isPresent()) {
-            User existingUser = userRepository.findByEmail(email).get();
-
-            // Check if user has Google identity provider
-            if (userIdentityProviderRepository
-                    .findByUserEmailAndProvider(email, "GOOGLE")
-                    .isPresent()) {
-                return buildTokensForUser(existingUser);
-            } else {
-                // User exists but not with Google - check if they have other providers
-                if (userIdentityProviderRepository.findByUserEmail(email).isPresent()) {
-                    throw new BadCredentialsException(
-                            "This email is already registered with another provider. Please use the original login method.");
-                } else {
-                    // User exists with password - not allowed to use Google
-                    throw new BadCredentialsException(
-                            "This email is registered with a password. Please log in using email and password.");
-                }
-            }
-        }
-
-        // Create new user
-        String randomPassword = UUID.randomUUID().toString();
-        String encodedPassword = passwordEncoder.encode(randomPassword);
-
-        User newUser = new User();
-        newUser.setEmail(email);
-        newUser.setEncryptedPassword(encodedPassword);
-        newUser.setRole(UserRole.USER);
-        newUser.setEmailConfirmed(true); // Google emails are verified
-        newUser.setCreatedAt(Instant.now());
-        newUser.setUpdatedAt(Instant.now());
-
-        User savedUser = userRepository.save(newUser);
-
-        // Create Google identity provider mapping
-        UserIdentityProvider identityProvider = new UserIdentityProvider();
-        identityProvider.setUser(savedUser);
-        identityProvider.setProvider("GOOGLE");
-        identityProvider.setProviderUserId(providerId);
-        identityProvider.setCreatedAt(Instant.now());
-        identityProvider.setUpdatedAt(Instant.now());
-
-        userIdentityProviderRepository.save(identityProvider);
-
-        // Create empty user profile
-        UserProfile userProfile = new UserProfile();
-        userProfile.setUser(savedUser);
-        userProfile.setCreatedAt(Instant.now());
-        userProfile.setUpdatedAt(Instant.now());
-        userProfileRepository.save(userProfile);
-
-        // Send welcome notification for new user
-        try {
-            String userName = name != null && !name.isEmpty() ? name : email.split("@")[0];
-            notificationService.sendWelcomeEmail(email, userName);
-            logger.info("Welcome notification sent successfully for new Google user: {}", email);
-        } catch (Exception e) {
-            // Log error but don't fail the registration process
-            // In production, you might want to implement retry logic
-            logger.error("Failed to send welcome notification for new Google user: {}", email, e);
-        }
-
-        // Generate tokens
-        String accessToken = jwtUtils.generateAccessToken(savedUser.getEmail());
-        String refreshToken = jwtUtils.generateRefreshToken(savedUser.getEmail());
-        refreshTokenService.saveRefreshToken(savedUser.getEmail(), refreshToken);
-
-        return new AuthResponse(
-                accessToken, refreshToken, savedUser.getEmail(), savedUser.getId(), savedUser.getRole());
+        return resolveSocialLogin(
+                "GOOGLE",
+                providerId,
+                email,
+                name,
+                "This email is registered with a password. Please log in using email and password.");
     }
 
     // login with github
@@ -161,81 +103,73 @@ public class SocialAuthService {
             throw new IllegalArgumentException("Email not found in Github user profile");
         }
 
-        // Check if user exists with this email
-        if (userRepository.findByEmail(email).isPresent()) {
-            User existingUser = userRepository.findByEmail(email).get();
-
-            // Check if user has GitHub identity provider
-            if (userIdentityProviderRepository
-                    .findByUserEmailAndProvider(email, "GITHUB")
-                    .isPresent()) {
-                return buildTokensForUser(existingUser);
-            } else {
-                // User exists but not with GitHub - check if they have other providers
-                if (userIdentityProviderRepository.findByUserEmail(email).isPresent()) {
-                    throw new BadCredentialsException(
-                            "This email is already registered with another provider. Please use the original login method.");
-                } else {
-                    // User exists with password - not allowed to use GitHub
-                    throw new BadCredentialsException("This email is already registered with a password!");
-                }
+        return resolveSocialLogin(
+                "GITHUB", providerId, email, name, "This email is already registered with a password!");
+    }
+
+    /**
+     * Signs in through a social provider, creating the account on first use.
+     * An existing account is read with its providers in one query; a new one
+     * is created in one statement, so two simultaneous first logins end up
+     * with the same account instead of a constraint violation.
+     *
+     * @param passwordAccountMessage The error for an email that belongs to a
+     *                               password account.
+     */
+    private AuthResponse resolveSocialLogin(
+            String provider, String providerUserId, String email, String name, String passwordAccountMessage) {
+        Optional<User> existingUser = userRepository.findWithIdentityProvidersByEmail(email);
+
+        if (existingUser.isEmpty()) {
+            // The account and its welcome email are committed together or not at all
+            Optional<UUID> createdId = transactionTemplate.execute(status -> {
+                Optional<UUID> id = userRepository.insertSocialUser(email, provider, providerUserId);
+                id.ifPresent(created -> sendWelcomeEmail(provider, email, name));
+                return id;
+            });
+            if (createdId.isPresent()) {
+                return buildTokensForUser(newSocialUser(createdId.get(), email));
             }
+            // Another request created the account between our read and insert
+            existingUser = userRepository.findWithIdentityProvidersByEmail(email);
         }
 
-        // Create new user
-        String randomPassword = UUID.randomUUID().toString();
-        String encodedPassword = passwordEncoder.encode(randomPassword);
-
-        User newUser = new User();
-        newUser.setEmail(email);
-        newUser.setEncryptedPassword(encodedPassword);
-        newUser.setRole(UserRole.USER);
-        newUser.setEmailConfirmed(true); // GitHub emails are verified
-        newUser.setCreatedAt(Instant.now());
-        newUser.setUpdatedAt(Instant.now());
-
-        User savedUser = userRepository.save(newUser);
-
-        // Create GitHub identity provider mapping
-        UserIdentityProvider identityProvider = new UserIdentityProvider();
-        identityProvider.setUser(savedUser);
-        identityProvider.setProvider("GITHUB");
-        identityProvider.setProviderUserId(providerId);
-        identityProvider.setCreatedAt(Instant.now());
-        identityProvider.setUpdatedAt(Instant.now());
-
-        userIdentityProviderRepository.save(identityProvider);
-
-        // Create empty user profile
-        UserProfile userProfile = new UserProfile();
-        userProfile.setUser(savedUser);
-        userProfile.setCreatedAt(Instant.now());
-        userProfile.setUpdatedAt(Instant.now());
-        userProfileRepository.save(userProfile);
-
-        // Send welcome notification for new user
-        try {
-            String userName = name != null && !name.isEmpty() ? name : email.split("@")[0];
-            notificationService.sendWelcomeEmail(email, userName);
-            logger.info("Welcome notification sent successfully for new GitHub user: {}", email);
-        } catch (Exception e) {
-            // Log error but don't fail the registration process
-            // In production, you might want to implement retry logic
-            logger.error("Failed to send welcome notification for new GitHub user: {}", email, e);
+        User user = existingUser.orElseThrow(
+                () -> new IllegalStateException("Account for " + email + " vanished during social sign-in"));
+        List<UserIdentityProvider> identityProviders =
+                user.getIdentityProviders() != null ? user.getIdentityProviders() : List.of();
+
+        if (identityProviders.stream().anyMatch(identity -> provider.equals(identity.getProvider()))) {
+            return buildTokensForUser(user);
+        } else if (!identityProviders.isEmpty()) {
+            throw new BadCredentialsException(
+                    "This email is already registered with another provider. Please use the original login method.");
+        } else {
+            throw new BadCredentialsException(passwordAccountMessage);
         }
+    }
 
-        // Generate tokens
-        String jwtAccessToken = jwtUtils.generateAccessToken(savedUser.getEmail());
-        String jwtRefreshToken = jwtUtils.generateRefreshToken(savedUser.getEmail());
-        refreshTokenService.saveRefreshToken(savedUser.getEmail(), jwtRefreshToken);
+    // Mirrors the row insertSocialUser creates, to mint tokens without reading it back
+    private User newSocialUser(UUID id, String email) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(email);
+        user.setEncryptedPassword("");
+        user.setCredentialType(CredentialType.SOCIAL);
+        user.setRole(UserRole.USER);
+        user.setEmailConfirmed(true); // Provider emails are verified
+        return user;
+    }
 
-        return new AuthResponse(
-                jwtAccessToken, jwtRefreshToken, savedUser.getEmail(), savedUser.getId(), savedUser.getRole());
+    private void sendWelcomeEmail(String provider, String email, String name) {
+        String userName = name != null && !name.isEmpty() ? name : email.split("@")[0];
+        notificationService.sendWelcomeEmail(email, userName);
+        logger.info("Welcome notification queued for new {} user: {}", provider, email);
     }
 
     // exchange code for access token
     public String exchangeCodeForAccessToken(String code) {
-        String url = "https://github.com/login/oauth/access_token";
+        String url = githubOAuthBaseUrl + "/login/oauth/access_token";
 
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(List.of(MediaType.APPLICATION_JSON));
@@ -261,24 +195,37 @@ public class SocialAuthService {
         return (String) response.getBody().get("access_token");
     }
 
-    // fetch github user
+    // fetch github user; the profile and the email list are requested concurrently,
+    // since the profile's email is null whenever the user keeps it private
     private GitHubUserDTO fetchGitHubUser(String token) {
         HttpHeaders headers = new HttpHeaders();
         headers.setBearerAuth(token);
         headers.setAccept(List.of(MediaType.APPLICATION_JSON));
         HttpEntity<Void> entity = new HttpEntity<>(headers);
 
-        ResponseEntity<GitHubUserDTO> response =
-                restTemplate.exchange("https://api.github.com/user", HttpMethod.GET, entity, GitHubUserDTO.class);
-
-        GitHubUserDTO userDTO = response.getBody();
+        GitHubUserDTO userDTO;
+        GitHubEmailDTO[] emails;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<GitHubUserDTO> user = executor.submit(() -> restTemplate
+                    .exchange(githubApiBaseUrl + "/user", HttpMethod.GET, entity, GitHubUserDTO.class)
+                    .getBody());
+            Future<GitHubEmailDTO[]> emailList = executor.submit(() -> restTemplate
+                    .exchange(githubApiBaseUrl + "/user/emails", HttpMethod.GET, entity, GitHubEmailDTO[].class)
+                    .getBody());
+
+            userDTO = await(user);
+            try {
+                emails = await(emailList);
+            } catch (RuntimeException e) {
+                // Only needed when the profile has no email; without it the login fails below
+                logger.warn("Failed to fetch GitHub email list: {}", e.getMessage());
+                emails = null;
+            }
+        }
 
         // Fetch email if null
-        if (userDTO.getEmail() == null) {
-            ResponseEntity<GitHubEmailDTO[]> emailResponse = restTemplate.exchange(
-                    "https://api.github.com/user/emails", HttpMethod.GET, entity, GitHubEmailDTO[].class);
-
-            for (GitHubEmailDTO mail : emailResponse.getBody()) {
+        if (userDTO.getEmail() == null && emails != null) {
+            for (GitHubEmailDTO mail : emails) {
                 if (mail.isPrimary() && mail.isVerified()) {
                     userDTO.setEmail(mail.getEmail());
                     break;
@@ -289,10 +236,25 @@ public class SocialAuthService {
         return userDTO;
     }
 
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calling GitHub", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("GitHub call failed", e.getCause());
+        }
+    }
+
     private AuthResponse buildTokensForUser(User user) {
-        String accessToken = jwtUtils.generateAccessToken(user.getEmail());
-        String refreshToken = jwtUtils.generateRefreshToken(user.getEmail());
-        refreshTokenService.saveRefreshToken(user.getEmail(), refreshToken);
+        String accessToken = jwtUtils.generateAccessToken(user);
+        String sessionId = refreshTokenService.newSessionId();
+        String refreshToken = jwtUtils.generateRefreshToken(user.getEmail(), sessionId);
+        refreshTokenService.saveRefreshToken(user.getEmail(), sessionId, refreshToken, null);
 
         return new AuthResponse(accessToken, refreshToken, user.getEmail(), user.getId(), user.getRole());
     }
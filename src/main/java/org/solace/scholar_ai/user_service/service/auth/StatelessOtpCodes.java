@@ -0,0 +1,200 @@
+package org.solace.scholar_ai.user_service.service.auth;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.solace.scholar_ai.user_service.config.RedisCircuitBreaker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * One-time codes derived rather than stored, used by {@link OtpService} when
+ * {@code spring.app.otp.stateless.enabled} is set. A code is an HMAC over the
+ * purpose, email, time window and a per-account nonce, cut down to six digits
+ * the way HOTP does, so issuing one writes nothing and checking one needs
+ * nothing but the secret.
+ *
+ * <p>Windows are {@code spring.app.otp.ttl-ms} long and a code is accepted in
+ * its own window and the next, so it lives between one and two TTLs. The
+ * nonce changes when the account does (a new password hash, say), which voids
+ * outstanding codes.
+ *
+ * <p>The only state is a replay guard: a Bloom filter per window, kept as a
+ * Redis bitmap of {@code replay-guard-bits} bits, with the bits of every used
+ * code set in one Lua call. A false positive turns a fresh code away as
+ * already used and the user asks for another; at the default size that takes
+ * roughly a hundred thousand codes used in one window. While Redis is
+ * unavailable each replica keeps its own filter.
+ */
+@Component
+public class StatelessOtpCodes {
+    private static final String KEY_PREFIX = "otp:used:";
+    private static final int HASHES = 7;
+
+    // KEYS: bitmap. ARGV: ttl ms, then bit offsets.
+    // Returns 1 if every bit was already set, else sets them all and returns 0.
+    private static final String MARK_USED_LUA =
+            """
+            for i = 2, #ARGV do
+              if redis.call('GETBIT', KEYS[1], ARGV[i]) == 0 then
+                for j = 2, #ARGV do
+                  redis.call('SETBIT', KEYS[1], ARGV[j], 1)
+                end
+                redis.call('PEXPIRE', KEYS[1], ARGV[1])
+                return 0
+              end
+            end
+            return 1
+            """;
+
+    private static final RedisScript<Long> MARK_USED = new DefaultRedisScript<>(MARK_USED_LUA, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisCircuitBreaker redisCircuitBreaker;
+    private final ThreadLocal<Mac> macs;
+    private final long windowMs;
+    private final int guardBits;
+
+    // Fallback filters by window, used while Redis is unavailable
+    private final Map<Long, BitSet> localFilters = new HashMap<>();
+
+    public StatelessOtpCodes(
+            RedisTemplate<String, String> redisTemplate,
+            RedisCircuitBreaker redisCircuitBreaker,
+            @Value("${spring.app.otp.stateless.enabled:false}") boolean enabled,
+            @Value("${spring.app.otp.stateless.secret:}") String secret,
+            @Value("${spring.app.otp.ttl-ms:600000}") long windowMs,
+            @Value("${spring.app.otp.stateless.replay-guard-bits:1048576}") int guardBits) {
+        this.redisTemplate = redisTemplate;
+        this.redisCircuitBreaker = redisCircuitBreaker;
+        this.windowMs = windowMs;
+        this.guardBits = guardBits;
+        if (!enabled) {
+            this.macs = null;
+            return;
+        }
+        if (!StringUtils.hasText(secret) || secret.length() < 32) {
+            throw new IllegalStateException(
+                    "spring.app.otp.stateless.secret must be at least 32 characters when stateless codes are enabled");
+        }
+        SecretKeySpec key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 is not available", e);
+            }
+        });
+        // Fail fast on an unusable key rather than on the first request
+        macs.get();
+    }
+
+    public boolean isEnabled() {
+        return macs != null;
+    }
+
+    /**
+     * @return The code for the current window.
+     */
+    public String issue(OtpService.Purpose purpose, String email, String nonce) {
+        return issue(purpose, email, nonce, System.currentTimeMillis());
+    }
+
+    String issue(OtpService.Purpose purpose, String email, String nonce, long now) {
+        return derive(purpose, email, nonce, now / windowMs);
+    }
+
+    /**
+     * Checks a code against the current and previous window, and records it
+     * as used if it matches.
+     *
+     * @return True if the code is right and had not been used before.
+     */
+    public boolean verify(OtpService.Purpose purpose, String email, String nonce, String code) {
+        return verify(purpose, email, nonce, code, System.currentTimeMillis());
+    }
+
+    boolean verify(OtpService.Purpose purpose, String email, String nonce, String code, long now) {
+        byte[] submitted = code.getBytes(StandardCharsets.UTF_8);
+        long window = now / windowMs;
+        for (long w = window; w >= window - 1; w--) {
+            byte[] expected = derive(purpose, email, nonce, w).getBytes(StandardCharsets.UTF_8);
+            if (MessageDigest.isEqual(expected, submitted)) {
+                return markUsed(purpose, email, code, w);
+            }
+        }
+        return false;
+    }
+
+    private String derive(OtpService.Purpose purpose, String email, String nonce, long window) {
+        String input = purpose.name() + '\n' + email + '\n' + window + '\n' + nonce;
+        byte[] hmac = macs.get().doFinal(input.getBytes(StandardCharsets.UTF_8));
+        // Dynamic truncation from RFC 4226
+        int offset = hmac[hmac.length - 1] & 0x0f;
+        int binary = ByteBuffer.wrap(hmac, offset, 4).getInt() & 0x7fffffff;
+        return String.format("%06d", binary % 1_000_000);
+    }
+
+    // Records the code in the window's filter; false if it was already there
+    private boolean markUsed(OtpService.Purpose purpose, String email, String code, long window) {
+        long[] offsets = bitOffsets(purpose, email, code);
+        Long seen = redisCircuitBreaker.execute(
+                () -> {
+                    List<String> args = new ArrayList<>(1 + offsets.length);
+                    // Codes from this window are accepted until the end of the next one
+                    args.add(String.valueOf(2 * windowMs));
+                    for (long offset : offsets) {
+                        args.add(String.valueOf(offset));
+                    }
+                    return redisTemplate.execute(MARK_USED, List.of(KEY_PREFIX + window), args.toArray());
+                },
+                () -> markUsedLocally(window, offsets));
+        return seen == null || seen == 0;
+    }
+
+    private synchronized long markUsedLocally(long window, long[] offsets) {
+        localFilters.keySet().removeIf(w -> w < window - 1);
+        BitSet filter = localFilters.computeIfAbsent(window, w -> new BitSet(guardBits));
+        boolean seen = true;
+        for (long offset : offsets) {
+            if (!filter.get((int) offset)) {
+                seen = false;
+                filter.set((int) offset);
+            }
+        }
+        return seen ? 1 : 0;
+    }
+
+    // Kirsch-Mitzenmacher double hashing over one SHA-256 digest
+    private long[] bitOffsets(OtpService.Purpose purpose, String email, String code) {
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256")
+                    .digest((purpose.name() + '\n' + email + '\n' + code).getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(digest);
+        long h1 = buffer.getLong();
+        long h2 = buffer.getLong();
+        long[] offsets = new long[HASHES];
+        for (int i = 0; i < HASHES; i++) {
+            offsets[i] = Math.floorMod(h1 + i * h2, guardBits);
+        }
+        return offsets;
+    }
+}
@@ -1,9 +1,8 @@
 package org.solace.scholar_ai.user_service.service.auth;
 
 import java.util.List;
+import org.solace.scholar_ai.user_service.model.CredentialType;
 import org.solace.scholar_ai.user_service.model.User;
-import org.solace.scholar_ai.user_service.model.UserIdentityProvider;
-import org.solace.scholar_ai.user_service.repository.UserIdentityProviderRepository;
 import org.solace.scholar_ai.user_service.repository.UserRepository;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -19,12 +18,11 @@ import org.springframework.util.StringUtils;
 public class UserLoadingService implements UserDetailsService {
 
     private final UserRepository userRepository;
-    private final UserIdentityProviderRepository userIdentityProviderRepository;
+    private final PrincipalCache principalCache;
 
-    public UserLoadingService(
-            UserRepository userRepository, UserIdentityProviderRepository userIdentityProviderRepository) {
+    public UserLoadingService(UserRepository userRepository, PrincipalCache principalCache) {
         this.userRepository = userRepository;
-        this.userIdentityProviderRepository = userIdentityProviderRepository;
+        this.principalCache = principalCache;
     }
 
     @Override
@@ -37,9 +35,8 @@ public class UserLoadingService implements UserDetailsService {
                 .findByEmail(username)
                 .orElseThrow(() -> new UsernameNotFoundException("No user found with email: " + username));
 
-        // Check if user has identity providers (social login)
-        UserIdentityProvider identityProvider = userIdentityProviderRepository.findByUserId(user.getId());
-        boolean isSocialUser = identityProvider != null;
+        // Social accounts sign in through an identity provider
+        boolean isSocialUser = user.getCredentialType() == CredentialType.SOCIAL;
 
         // Create authority from user role
         GrantedAuthority grantedAuthority =
@@ -58,4 +55,45 @@ public class UserLoadingService implements UserDetailsService {
                 true, // accountNonLocked
                 authorityList);
     }
+
+    /**
+     * Loads the principal for an already authenticated request.
+     * Unlike {@link #loadUserByUsername(String)} the result carries no password
+     * and is answered from {@link PrincipalCache} when possible, so it must not
+     * be used to check credentials.
+     *
+     * @param username The user's email.
+     * @return User details with an empty password.
+     */
+    @Transactional(readOnly = true)
+    public UserDetails loadPrincipalByUsername(String username) throws UsernameNotFoundException {
+        return loadPrincipalSnapshot(username).toUserDetails();
+    }
+
+    /**
+     * Loads the principal fields for an already authenticated request, e.g. to
+     * mint a new access token carrying them as claims. Answered from
+     * {@link PrincipalCache} when possible.
+     *
+     * @param username The user's email.
+     * @return The principal snapshot.
+     */
+    @Transactional(readOnly = true)
+    public PrincipalSnapshot loadPrincipalSnapshot(String username) throws UsernameNotFoundException {
+        if (!StringUtils.hasText(username)) {
+            throw new IllegalArgumentException("Username cannot be null or empty");
+        }
+
+        return principalCache.get(username, this::loadSnapshot);
+    }
+
+    private PrincipalSnapshot loadSnapshot(String username) {
+        User user = userRepository
+                .findByEmail(username)
+                .orElseThrow(() -> new UsernameNotFoundException("No user found with email: " + username));
+        boolean isSocialUser = user.getCredentialType() == CredentialType.SOCIAL;
+
+        return new PrincipalSnapshot(
+                user.getId(), user.getEmail(), user.getRole(), user.isEmailConfirmed(), isSocialUser);
+    }
 }
@@ -0,0 +1,139 @@
+package org.solace.scholar_ai.user_service.service.notification;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Locale;
+import lombok.extern.slf4j.Slf4j;
+import org.solace.scholar_ai.user_service.config.RedisCircuitBreaker;
+import org.solace.scholar_ai.user_service.dto.notification.NotificationRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Collapses identical notifications sent within {@code window-ms} of each
+ * other into the first one: the same type to the same recipient with the same
+ * template data, as when another service retries {@code /notifications/send}
+ * or a user repeats a request. Later copies are dropped and counted as
+ * {@code notification.dedup.suppressed}.
+ *
+ * <p>The first sender of a notification claims it with {@code SET NX} in
+ * Redis, so the window holds across replicas. Each replica also remembers the
+ * notifications it has seen, and drops repeats of those without asking
+ * Redis. While Redis is unavailable only that local memory applies.
+ */
+@Component
+@Slf4j
+public class NotificationDeduplicator {
+    private static final String KEY_PREFIX = "notification:dedup:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisCircuitBreaker redisCircuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper canonicalMapper;
+    private final boolean enabled;
+    private final Duration window;
+    private final Cache<String, Boolean> recentlySeen;
+
+    public NotificationDeduplicator(
+            RedisTemplate<String, String> redisTemplate,
+            RedisCircuitBreaker redisCircuitBreaker,
+            MeterRegistry meterRegistry,
+            ObjectMapper objectMapper,
+            @Value("${spring.app.notification.dedup.enabled:true}") boolean enabled,
+            @Value("${spring.app.notification.dedup.window-ms:60000}") long windowMs,
+            @Value("${spring.app.notification.dedup.local-max-size:100000}") long localMaxSize) {
+        this.redisTemplate = redisTemplate;
+        this.redisCircuitBreaker = redisCircuitBreaker;
+        this.meterRegistry = meterRegistry;
+        // Same template data, same hash, whatever order its maps were built in
+        this.canonicalMapper = objectMapper.copy().enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        this.enabled = enabled;
+        this.window = Duration.ofMillis(windowMs);
+        this.recentlySeen = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    /**
+     * Claims a notification for sending.
+     *
+     * @return True if it should be sent; false if an identical one was
+     *         already sent within the window.
+     */
+    public boolean claim(NotificationRequest request) {
+        if (!enabled) {
+            return true;
+        }
+        String key = key(request);
+        if (recentlySeen.getIfPresent(key) != null) {
+            return suppressed(request, "local");
+        }
+
+        Boolean first = redisCircuitBreaker.execute(
+                () -> redisTemplate.opsForValue().setIfAbsent(key, "1", window), () -> Boolean.TRUE);
+        recentlySeen.put(key, Boolean.TRUE);
+        if (Boolean.FALSE.equals(first)) {
+            return suppressed(request, "shared");
+        }
+        return true;
+    }
+
+    /**
+     * Gives up a claim, e.g. because the transaction that would have sent the
+     * notification rolled back, so an identical one can go out at once.
+     */
+    public void release(NotificationRequest request) {
+        if (!enabled) {
+            return;
+        }
+        String key = key(request);
+        recentlySeen.invalidate(key);
+        // Left to expire on its own if Redis is unavailable now
+        redisCircuitBreaker.run(() -> redisTemplate.delete(key), () -> {});
+    }
+
+    private boolean suppressed(NotificationRequest request, String source) {
+        meterRegistry
+                .counter(
+                        "notification.dedup.suppressed",
+                        "type",
+                        String.valueOf(request.getNotificationType()),
+                        "source",
+                        source)
+                .increment();
+        log.info(
+                "Suppressed duplicate notification {} to {}",
+                request.getNotificationType(),
+                request.getRecipientEmail());
+        return false;
+    }
+
+    // notification:dedup:<type>:<hash of recipient and template>
+    String key(NotificationRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(request.getRecipientEmail())
+                    .toLowerCase(Locale.ROOT)
+                    .getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(String.valueOf(request.getRecipientName()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(canonicalMapper.writeValueAsBytes(request.getTemplateData()));
+            return KEY_PREFIX + request.getNotificationType() + ":"
+                    + HexFormat.of().formatHex(digest.digest(), 0, 16);
+        } catch (GeneralSecurityException | JsonProcessingException e) {
+            throw new IllegalStateException("Cannot fingerprint notification " + request.getNotificationType(), e);
+        }
+    }
+}
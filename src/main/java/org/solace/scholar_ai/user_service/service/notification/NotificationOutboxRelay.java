@@ -0,0 +1,217 @@
+package org.solace.scholar_ai.user_service.service.notification;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import lombok.extern.slf4j.Slf4j;
+import org.solace.scholar_ai.user_service.dto.notification.NotificationRequest;
+import org.solace.scholar_ai.user_service.model.NotificationOutboxEntry;
+import org.solace.scholar_ai.user_service.repository.NotificationOutboxRepository;
+import org.springframework.amqp.AmqpException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Publishes notifications from the outbox table to RabbitMQ. Each pass claims
+ * a batch of due rows in a short transaction: it locks them with
+ * {@code FOR UPDATE SKIP LOCKED} and pushes their {@code available_at} out by
+ * {@code lease-ms}, so other replicas pass over them once the locks are gone.
+ * With no transaction open it then publishes the whole batch through
+ * {@link NotificationPublisher} and waits for the broker's confirms together,
+ * and finally deletes the confirmed rows and records the failures in a second
+ * short transaction. No row lock or pooled connection is held while waiting
+ * on the broker. It keeps going while batches come back full.
+ *
+ * <p>Delivery is at least once: a row whose claim outlives its lease, because
+ * the relay died or the broker was slower than the lease, is sent again. A row
+ * that is not confirmed is retried with exponential backoff, up to
+ * {@code max-attempts}; after that, or at once if its payload cannot be read,
+ * it is marked {@code failed_at} and left for inspection. A broker error ends
+ * the pass so an outage is not hammered row by row, and the rows not yet tried
+ * are handed back. No pass runs while the broker has blocked publishing.
+ */
+@Component
+@Slf4j
+public class NotificationOutboxRelay {
+    private static final Duration MIN_BACKOFF = Duration.ofSeconds(1);
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationPublisher publisher;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration maxBackoff;
+    private final int maxAttempts;
+    private final Duration lease;
+
+    public NotificationOutboxRelay(
+            NotificationOutboxRepository outboxRepository,
+            NotificationPublisher publisher,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            PlatformTransactionManager transactionManager,
+            @Value("${spring.app.notification.outbox.batch-size:100}") int batchSize,
+            @Value("${spring.app.notification.outbox.max-backoff-ms:300000}") long maxBackoffMs,
+            @Value("${spring.app.notification.outbox.max-attempts:10}") int maxAttempts,
+            @Value("${spring.app.notification.outbox.lease-ms:60000}") long leaseMs) {
+        this.outboxRepository = outboxRepository;
+        this.publisher = publisher;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBackoff = Duration.ofMillis(maxBackoffMs);
+        this.maxAttempts = maxAttempts;
+        this.lease = Duration.ofMillis(leaseMs);
+    }
+
+    @Scheduled(fixedDelayString = "${spring.app.notification.outbox.poll-interval-ms:1000}")
+    void relay() {
+        if (publisher.isBlocked()) {
+            log.debug("RabbitMQ is blocking publishers; skipping this outbox relay pass");
+            return;
+        }
+        try {
+            int sent;
+            do {
+                sent = relayBatch(Instant.now());
+            } while (sent == batchSize);
+        } catch (Exception e) {
+            log.warn("Notification outbox relay pass failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return How many entries were confirmed; less than a full batch when
+     *         the outbox is drained or publishing failed.
+     */
+    int relayBatch(Instant now) {
+        List<NotificationOutboxEntry> claimed = transactionTemplate.execute(status -> {
+            List<NotificationOutboxEntry> due = outboxRepository.lockDueEntries(now, batchSize);
+            // Flushed on commit; the rows are not due again until the lease runs out
+            due.forEach(entry -> entry.setAvailableAt(now.plus(lease)));
+            return due;
+        });
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+
+        Map<NotificationOutboxEntry, CompletableFuture<Void>> published = new LinkedHashMap<>();
+        List<NotificationOutboxEntry> failed = new ArrayList<>();
+        List<UUID> untried = new ArrayList<>();
+        boolean brokerFailed = false;
+        for (NotificationOutboxEntry entry : claimed) {
+            if (brokerFailed) {
+                // Handed back and retried on the next pass
+                untried.add(entry.getId());
+                continue;
+            }
+            NotificationRequest request;
+            try {
+                request = objectMapper.readValue(entry.getPayload(), NotificationRequest.class);
+            } catch (Exception e) {
+                // Never readable, so not worth retrying
+                giveUp(entry, now, e);
+                failed.add(entry);
+                continue;
+            }
+            try {
+                published.put(entry, publisher.publish(request));
+            } catch (Exception e) {
+                scheduleRetry(entry, now, e);
+                failed.add(entry);
+                brokerFailed = e instanceof AmqpException;
+            }
+        }
+
+        // Each future ends by the confirm timeout at the latest
+        List<UUID> sent = new ArrayList<>(published.size());
+        published.forEach((entry, confirm) -> {
+            try {
+                confirm.join();
+                sent.add(entry.getId());
+            } catch (CompletionException e) {
+                scheduleRetry(entry, now, e.getCause() instanceof Exception cause ? cause : e);
+                failed.add(entry);
+            }
+        });
+
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxRepository.deleteAllByIdInBatch(sent);
+            for (NotificationOutboxEntry entry : failed) {
+                outboxRepository.recordFailedAttempt(
+                        entry.getId(),
+                        entry.getAttempts(),
+                        entry.getAvailableAt(),
+                        entry.getFailedAt(),
+                        entry.getLastError());
+            }
+            if (!untried.isEmpty()) {
+                outboxRepository.release(untried, now);
+            }
+        });
+        if (!sent.isEmpty()) {
+            meterRegistry
+                    .counter("notification.outbox.relayed", "outcome", "sent")
+                    .increment(sent.size());
+            log.debug("Relayed {} notification(s) from the outbox", sent.size());
+        }
+        return sent.size();
+    }
+
+    private void scheduleRetry(NotificationOutboxEntry entry, Instant now, Exception e) {
+        int attempts = entry.getAttempts() + 1;
+        if (attempts >= maxAttempts) {
+            giveUp(entry, now, e);
+            return;
+        }
+        Duration backoff = MIN_BACKOFF.multipliedBy(1L << Math.min(attempts - 1, 20));
+        if (backoff.compareTo(maxBackoff) > 0) {
+            backoff = maxBackoff;
+        }
+        entry.setAttempts(attempts);
+        entry.setAvailableAt(now.plus(backoff));
+        entry.setLastError(truncate(e));
+        meterRegistry
+                .counter("notification.outbox.relayed", "outcome", "failed")
+                .increment();
+        log.warn(
+                "Failed to publish notification {} to {} (attempt {}), retrying in {}: {}",
+                entry.getNotificationType(),
+                entry.getRecipientEmail(),
+                attempts,
+                backoff,
+                entry.getLastError());
+    }
+
+    private void giveUp(NotificationOutboxEntry entry, Instant now, Exception e) {
+        entry.setAttempts(entry.getAttempts() + 1);
+        entry.setFailedAt(now);
+        entry.setLastError(truncate(e));
+        meterRegistry.counter("notification.outbox.relayed", "outcome", "dead").increment();
+        log.error(
+                "Giving up on notification {} to {} after {} attempt(s): {}",
+                entry.getNotificationType(),
+                entry.getRecipientEmail(),
+                entry.getAttempts(),
+                entry.getLastError());
+    }
+
+    private static String truncate(Exception e) {
+        String error = String.valueOf(e.getMessage());
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
@@ -0,0 +1,187 @@
+package org.solace.scholar_ai.user_service.service.notification;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.solace.scholar_ai.user_service.config.RabbitMQConfig;
+import org.solace.scholar_ai.user_service.dto.notification.NotificationRequest;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.rabbit.connection.ConnectionBlockedEvent;
+import org.springframework.amqp.rabbit.connection.ConnectionUnblockedEvent;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes notifications with correlated publisher confirms. {@link #publish}
+ * returns as soon as the message is written, so a caller can send a whole
+ * batch and then wait for the confirms together instead of one round trip
+ * per message. At most {@code max-in-flight} messages wait for a confirm at
+ * once; past that, publishing waits for a slot.
+ *
+ * <p>The {@link NotificationRequest.NotificationType} picks the lane and the
+ * message priority (see {@link RabbitMQConfig}); types this service does not
+ * know go on the bulk lane at the lowest priority.
+ *
+ * <p>When the broker raises {@code connection.blocked} (a memory or disk
+ * alarm) {@link #isBlocked()} turns true until it lifts, and callers should
+ * hold off rather than park threads on a blocked socket.
+ */
+@Component
+@Slf4j
+public class NotificationPublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore window;
+    private final Duration confirmTimeout;
+    private final Timer confirmLatency;
+    private volatile boolean blocked;
+
+    @Value("${spring.rabbitmq.notification.exchange.name}")
+    private String notificationExchangeName;
+
+    public NotificationPublisher(
+            RabbitTemplate rabbitTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${spring.app.notification.publisher.max-in-flight:256}") int maxInFlight,
+            @Value("${spring.app.notification.publisher.confirm-timeout-ms:10000}") long confirmTimeoutMs) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.meterRegistry = meterRegistry;
+        this.window = new Semaphore(maxInFlight);
+        this.confirmTimeout = Duration.ofMillis(confirmTimeoutMs);
+        this.confirmLatency = Timer.builder("notification.publish.confirm.latency")
+                .description("Time from publishing a notification to the broker's ack")
+                .register(meterRegistry);
+        Gauge.builder("notification.publish.in-flight", window, w -> maxInFlight - w.availablePermits())
+                .description("Notifications published and waiting for a confirm")
+                .register(meterRegistry);
+        Gauge.builder("notification.publish.blocked", this, p -> p.blocked ? 1 : 0)
+                .description("1 while the broker has blocked publishing")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publishes a notification without waiting for the broker.
+     *
+     * @return Completes when the broker confirms the message, or
+     *         exceptionally if it is nacked, returned as unroutable, or not
+     *         confirmed within {@code confirm-timeout-ms}.
+     * @throws AmqpException If the message could not be sent at all, or no
+     *                       in-flight slot freed up in time.
+     */
+    public CompletableFuture<Void> publish(NotificationRequest request) {
+        if (blocked) {
+            throw new AmqpException("RabbitMQ has blocked publishing");
+        }
+        acquireSlot();
+
+        NotificationRequest.NotificationType type =
+                NotificationRequest.NotificationType.fromName(request.getNotificationType());
+        NotificationRequest.Lane lane = type != null ? type.lane() : NotificationRequest.Lane.BULK;
+        int priority = type != null ? type.priority() : 0;
+
+        CorrelationData correlation = new CorrelationData(UUID.randomUUID().toString());
+        long started = System.nanoTime();
+        try {
+            rabbitTemplate.convertAndSend(
+                    notificationExchangeName,
+                    routingKey(lane, request.getNotificationType()),
+                    request,
+                    message -> {
+                        message.getMessageProperties().setPriority(priority);
+                        return message;
+                    },
+                    correlation);
+        } catch (RuntimeException e) {
+            window.release();
+            throw e;
+        }
+        meterRegistry
+                .counter("notification.publish.sent", "lane", lane.name().toLowerCase(Locale.ROOT))
+                .increment();
+
+        return correlation
+                .getFuture()
+                .orTimeout(confirmTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((confirm, error) -> {
+                    window.release();
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                        if (cause instanceof TimeoutException) {
+                            throw failed(
+                                    "timeout",
+                                    new AmqpTimeoutException("No publisher confirm within " + confirmTimeout));
+                        }
+                        throw failed("error", new AmqpException("Publisher confirm failed: " + cause, cause));
+                    }
+                    if (!confirm.isAck()) {
+                        throw failed("nack", new AmqpException("Broker nacked notification: " + confirm.getReason()));
+                    }
+                    if (correlation.getReturned() != null) {
+                        throw failed(
+                                "returned",
+                                new AmqpException("Notification was unroutable: "
+                                        + correlation.getReturned().getReplyText()));
+                    }
+                    // Only acks, so failures do not skew the broker's confirm times
+                    confirmLatency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                    return null;
+                });
+    }
+
+    public boolean isBlocked() {
+        return blocked;
+    }
+
+    @EventListener
+    void onBlocked(ConnectionBlockedEvent event) {
+        blocked = true;
+        log.warn("RabbitMQ blocked publishing: {}", event.getReason());
+    }
+
+    @EventListener
+    void onUnblocked(ConnectionUnblockedEvent event) {
+        blocked = false;
+        log.info("RabbitMQ unblocked publishing");
+    }
+
+    static String routingKey(NotificationRequest.Lane lane, String notificationType) {
+        String prefix = lane == NotificationRequest.Lane.PRIORITY
+                ? RabbitMQConfig.PRIORITY_ROUTING_PREFIX
+                : RabbitMQConfig.BULK_ROUTING_PREFIX;
+        // Dots would add routing key words
+        String word = notificationType != null
+                ? notificationType.toLowerCase(Locale.ROOT).replace('.', '_')
+                : "unknown";
+        return prefix + word;
+    }
+
+    private void acquireSlot() {
+        try {
+            if (!window.tryAcquire(confirmTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new AmqpTimeoutException("No publisher confirm slot freed up within " + confirmTimeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmqpException("Interrupted waiting for a publisher confirm slot", e);
+        }
+    }
+
+    private CompletionException failed(String reason, AmqpException cause) {
+        meterRegistry.counter("notification.publish.failed", "reason", reason).increment();
+        return new CompletionException(cause);
+    }
+}
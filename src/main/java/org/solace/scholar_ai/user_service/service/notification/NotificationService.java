@@ -1,27 +1,27 @@
 package org.solace.scholar_ai.user_service.service.notification;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.Instant;
 import java.util.Map;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.solace.scholar_ai.user_service.dto.notification.NotificationRequest;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.beans.factory.annotation.Value;
+import org.solace.scholar_ai.user_service.model.NotificationOutboxEntry;
+import org.solace.scholar_ai.user_service.repository.NotificationOutboxRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationService {
 
-    private final RabbitTemplate rabbitTemplate;
-
-    @Value("${spring.rabbitmq.notification.exchange.name}")
-    private String notificationExchangeName;
-
-    @Value("${spring.rabbitmq.notification.routing.key}")
-    private String notificationRoutingKey;
+    private final NotificationOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+    private final NotificationDeduplicator deduplicator;
 
     public void sendWelcomeEmail(String email, String name) {
         NotificationRequest request = NotificationRequest.builder()
@@ -83,22 +83,45 @@ public class NotificationService {
         sendNotification(request);
     }
 
+    /**
+     * Writes the notification to the outbox, joining the caller's transaction
+     * if there is one, so it is sent if and only if that transaction commits.
+     * {@link NotificationOutboxRelay} publishes it shortly after. Repeats of a
+     * notification just sent are dropped by {@link NotificationDeduplicator}.
+     */
     private void sendNotification(NotificationRequest request) {
+        if (!deduplicator.claim(request)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    // Nothing was queued, so a retry must not count as a duplicate
+                    if (status != STATUS_COMMITTED) {
+                        deduplicator.release(request);
+                    }
+                }
+            });
+        }
+
+        NotificationOutboxEntry entry = new NotificationOutboxEntry();
+        entry.setNotificationType(request.getNotificationType());
+        entry.setRecipientEmail(request.getRecipientEmail());
+        entry.setAvailableAt(Instant.now());
         try {
-            rabbitTemplate.convertAndSend(notificationExchangeName, notificationRoutingKey, request);
-            log.info(
-                    "Notification sent successfully: {} to {}",
-                    request.getNotificationType(),
-                    request.getRecipientEmail());
-        } catch (Exception e) {
-            log.error(
-                    "Failed to send notification: {} to {}",
-                    request.getNotificationType(),
-                    request.getRecipientEmail(),
-                    e);
-            // In a production environment, you might want to implement retry logic or dead
-            // letter queue
+            entry.setPayload(objectMapper.writeValueAsString(request));
+            outboxRepository.save(entry);
+        } catch (JsonProcessingException e) {
+            deduplicator.release(request);
+            throw new IllegalArgumentException(
+                    "Notification cannot be serialized: " + request.getNotificationType(), e);
+        } catch (RuntimeException e) {
+            // Nothing was queued; without a transaction no rollback would release the claim
+            deduplicator.release(request);
+            throw e;
         }
+        log.info("Notification queued: {} to {}", request.getNotificationType(), request.getRecipientEmail());
     }
 
     public void sendGenericNotificationToUser(
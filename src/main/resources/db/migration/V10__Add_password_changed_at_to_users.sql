@@ -0,0 +1,5 @@
+-- When the user last set a password; one-time codes issued before then are void
+ALTER TABLE users ADD COLUMN password_changed_at TIMESTAMP;
+
+-- #!postgresql
+COMMENT ON COLUMN users.password_changed_at IS 'When the user last set a password; not moved by hash upgrades';
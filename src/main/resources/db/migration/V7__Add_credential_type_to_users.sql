@@ -0,0 +1,12 @@
+-- Mark how each user signs in, so social accounts need no password hash
+ALTER TABLE users
+ADD COLUMN credential_type VARCHAR(20) NOT NULL DEFAULT 'PASSWORD';
+
+-- Existing social accounts carry a hash of a random password nobody knows; drop it
+UPDATE users SET credential_type = 'SOCIAL', encrypted_password = ''
+WHERE id IN (SELECT user_id FROM user_identity_providers);
+
+ALTER TABLE users ADD CONSTRAINT chk_user_credential_type CHECK (credential_type IN ('PASSWORD', 'SOCIAL'));
+
+-- #!postgresql
+COMMENT ON COLUMN users.credential_type IS 'How the user signs in: PASSWORD, or SOCIAL through an identity provider';
@@ -0,0 +1,22 @@
+-- Notifications waiting to be published to RabbitMQ, written in the same
+-- transaction as the change that caused them
+CREATE TABLE notification_outbox (
+    id ${uuid_type} PRIMARY KEY ${uuid_default},
+    notification_type VARCHAR(50) NOT NULL,
+    recipient_email VARCHAR(255),
+    payload TEXT NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    available_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error VARCHAR(500),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- The relay takes the oldest due rows first
+CREATE INDEX idx_notification_outbox_available_at ON notification_outbox(available_at);
+
+-- #!postgresql
+COMMENT ON TABLE notification_outbox IS 'Notifications not yet published to RabbitMQ; rows are deleted once sent';
+COMMENT ON COLUMN notification_outbox.payload IS 'The NotificationRequest as JSON';
+COMMENT ON COLUMN notification_outbox.attempts IS 'Failed publish attempts so far';
+COMMENT ON COLUMN notification_outbox.available_at IS 'Earliest time of the next publish attempt';
+COMMENT ON COLUMN notification_outbox.last_error IS 'Why the last publish attempt failed';
@@ -0,0 +1,6 @@
+-- Entries the relay gave up on after too many failed attempts stay for
+-- inspection but are no longer picked up
+ALTER TABLE notification_outbox ADD COLUMN failed_at TIMESTAMP;
+
+-- #!postgresql
+COMMENT ON COLUMN notification_outbox.failed_at IS 'When the relay gave up on the entry; set back to NULL to retry it';
@@ -0,0 +1,112 @@
+package org.solace.scholar_ai.user_service.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+class RedisCircuitBreakerTest {
+
+    private final RedisConnectionFactory connectionFactory = mock(RedisConnectionFactory.class);
+    private final RedisCircuitBreaker breaker =
+            new RedisCircuitBreaker(connectionFactory, new SimpleMeterRegistry(), 50, 4, 4, 0, 2);
+
+    private String fail() {
+        throw new RedisConnectionFailureException("down");
+    }
+
+    @Test
+    void testOpensOnceFailureRateIsReached() {
+        breaker.execute(() -> "ok", () -> "fallback");
+        breaker.execute(() -> "ok", () -> "fallback");
+        breaker.execute(this::fail, () -> "fallback");
+        assertEquals(RedisCircuitBreaker.State.CLOSED, breaker.getState());
+
+        assertEquals("fallback", breaker.execute(this::fail, () -> "fallback"));
+        assertEquals(RedisCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void testOpenCircuitShortCircuitsToFallback() {
+        for (int i = 0; i < 4; i++) {
+            breaker.execute(this::fail, () -> "fallback");
+        }
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals("fallback", breaker.execute(() -> "ok" + calls.incrementAndGet(), () -> "fallback"));
+        assertEquals(0, calls.get());
+        assertFalse(breaker.isAvailable());
+    }
+
+    @Test
+    void testSuccessfulProbeAndTrialCallsCloseTheCircuit() {
+        for (int i = 0; i < 4; i++) {
+            breaker.execute(this::fail, () -> "fallback");
+        }
+        when(connectionFactory.getConnection()).thenReturn(mock(RedisConnection.class));
+
+        breaker.probe();
+        assertEquals(RedisCircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        breaker.execute(() -> "ok", () -> "fallback");
+        breaker.execute(() -> "ok", () -> "fallback");
+        assertEquals(RedisCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testFailedTrialCallReopensTheCircuit() {
+        for (int i = 0; i < 4; i++) {
+            breaker.execute(this::fail, () -> "fallback");
+        }
+        when(connectionFactory.getConnection()).thenReturn(mock(RedisConnection.class));
+        breaker.probe();
+
+        breaker.execute(this::fail, () -> "fallback");
+
+        assertEquals(RedisCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void testOtherExceptionsInTrialCallsHandThePermitBack() {
+        for (int i = 0; i < 4; i++) {
+            breaker.execute(this::fail, () -> "fallback");
+        }
+        when(connectionFactory.getConnection()).thenReturn(mock(RedisConnection.class));
+        breaker.probe();
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(
+                    IllegalStateException.class,
+                    () -> breaker.execute(
+                            () -> {
+                                throw new IllegalStateException("serialization failed");
+                            },
+                            () -> "fallback"));
+        }
+        assertEquals(RedisCircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        assertEquals("ok", breaker.execute(() -> "ok", () -> "fallback"));
+        assertEquals("ok", breaker.execute(() -> "ok", () -> "fallback"));
+        assertEquals(RedisCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testUndecidedTrialIsProbedAgain() {
+        for (int i = 0; i < 4; i++) {
+            breaker.execute(this::fail, () -> "fallback");
+        }
+        when(connectionFactory.getConnection()).thenReturn(mock(RedisConnection.class));
+        breaker.probe();
+
+        when(connectionFactory.getConnection()).thenThrow(new RedisConnectionFailureException("down"));
+        breaker.probe();
+
+        assertEquals(RedisCircuitBreaker.State.OPEN, breaker.getState());
+    }
+}
@@ -0,0 +1,74 @@
+package org.solace.scholar_ai.user_service.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.user_service.model.CredentialType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+// Schema from Hibernate with Flyway off, as in every deployed profile
+@DataJpaTest(properties = {"spring.flyway.enabled=false", "spring.jpa.hibernate.ddl-auto=create-drop"})
+class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void testSocialAccountFromBeforeCredentialTypesIsMarkedSocial() {
+        // As Hibernate leaves it after adding the column with its default
+        insertUser("social@example.com", "$2a$10$hashOfARandomPassword", "PASSWORD");
+        insertIdentityProvider("social@example.com", "GOOGLE");
+        insertUser("password@example.com", "$2a$10$hashOfARealPassword", "PASSWORD");
+
+        assertEquals(1, userRepository.markLegacySocialAccounts());
+        entityManager.clear();
+
+        LoginCredentials social =
+                userRepository.findLoginCredentialsByEmail("social@example.com").orElseThrow();
+        assertTrue(social.socialUser());
+        assertEquals("", social.encryptedPassword());
+        assertEquals(
+                CredentialType.PASSWORD,
+                userRepository
+                        .findLoginCredentialsByEmail("password@example.com")
+                        .orElseThrow()
+                        .credentialType());
+        assertEquals(0, userRepository.markLegacySocialAccounts());
+    }
+
+    private void insertUser(String email, String encryptedPassword, String credentialType) {
+        entityManager
+                .createNativeQuery(
+                        """
+                        INSERT INTO users (id, email, encrypted_password, credential_type, role, is_email_confirmed, created_at, updated_at)
+                        VALUES (?, ?, ?, ?, 'USER', TRUE, ?, ?)
+                        """)
+                .setParameter(1, UUID.randomUUID())
+                .setParameter(2, email)
+                .setParameter(3, encryptedPassword)
+                .setParameter(4, credentialType)
+                .setParameter(5, Instant.now())
+                .setParameter(6, Instant.now())
+                .executeUpdate();
+    }
+
+    private void insertIdentityProvider(String email, String provider) {
+        entityManager
+                .createNativeQuery(
+                        """
+                        INSERT INTO user_identity_providers (id, user_id, provider, provider_user_id)
+                        SELECT ?, id, ?, 'provider-user-1' FROM users WHERE email = ?
+                        """)
+                .setParameter(1, UUID.randomUUID())
+                .setParameter(2, provider)
+                .setParameter(3, email)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,86 @@
+package org.solace.scholar_ai.user_service.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.user_service.config.RedisCircuitBreaker;
+import org.solace.scholar_ai.user_service.exception.RetryLaterException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+class AuthRateLimiterTest {
+
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+
+    private final RedisCircuitBreaker redisCircuitBreaker = mock(RedisCircuitBreaker.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+    private final AuthRateLimiter limiter = new AuthRateLimiter(
+            redisTemplate,
+            redisCircuitBreaker,
+            meterRegistry,
+            new MockEnvironment().withProperty("spring.app.rate-limit.login.per-email", "2/1m"),
+            true);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDryBucketIsRememberedLocally() {
+        doAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get())
+                .when(redisCircuitBreaker)
+                .execute(any(), any());
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(2L, 5_000L));
+
+        RetryLaterException rejected = assertThrows(
+                RetryLaterException.class, () -> limiter.check(RateLimitedRoute.LOGIN, request, "Test@Example.com"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getStatus());
+        assertEquals(Duration.ofSeconds(5), rejected.getRetryAfter());
+
+        // Turned away again without asking Redis
+        assertThrows(
+                RetryLaterException.class, () -> limiter.check(RateLimitedRoute.LOGIN, request, "test@example.com"));
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+        assertEquals(
+                1,
+                meterRegistry
+                        .get("auth.rate-limit.rejected")
+                        .tag("scope", "email")
+                        .tag("source", "local")
+                        .counter()
+                        .count());
+    }
+
+    @Test
+    void testLimitsHoldLocallyWithoutRedis() {
+        doAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get())
+                .when(redisCircuitBreaker)
+                .execute(any(), any());
+
+        limiter.check(RateLimitedRoute.LOGIN, request, "test@example.com");
+        limiter.check(RateLimitedRoute.LOGIN, request, "test@example.com");
+        RetryLaterException rejected = assertThrows(
+                RetryLaterException.class, () -> limiter.check(RateLimitedRoute.LOGIN, request, "test@example.com"));
+
+        assertTrue(rejected.getRetryAfter().compareTo(Duration.ofSeconds(30)) <= 0);
+        // Another email from the same IP still has tokens
+        limiter.check(RateLimitedRoute.LOGIN, request, "other@example.com");
+    }
+
+    @Test
+    void testLimitSpecIsParsed() {
+        assertEquals(new AuthRateLimiter.Limit(5, 120_000), AuthRateLimiter.Limit.parse("5/10m"));
+        assertThrows(IllegalArgumentException.class, () -> AuthRateLimiter.Limit.parse("5"));
+        assertThrows(IllegalArgumentException.class, () -> AuthRateLimiter.Limit.parse("0/1m"));
+    }
+}
@@ -0,0 +1,83 @@
+package org.solace.scholar_ai.user_service.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.user_service.exception.ErrorCode;
+import org.solace.scholar_ai.user_service.exception.RetryLaterException;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Blocks inside encode until released, so the single thread stays busy
+    private final PasswordEncoder slowEncoder = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hash:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals("hash:" + rawPassword);
+        }
+    };
+
+    private final BoundedPasswordEncoder encoder =
+            new BoundedPasswordEncoder(slowEncoder, meterRegistry, 1, 1, Duration.ofSeconds(2));
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.shutdown();
+    }
+
+    @Test
+    void testFullQueueIsRejectedWithRetryAfter() throws Exception {
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        while (meterRegistry.get("password.hashing.queue.depth").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        RetryLaterException rejected = assertThrows(RetryLaterException.class, () -> encoder.encode("c"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatus());
+        assertEquals(ErrorCode.SERVICE_UNAVAILABLE, rejected.getErrorCode());
+        assertEquals(Duration.ofSeconds(2), rejected.getRetryAfter());
+        assertEquals(1, meterRegistry.get("password.hashing.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("hash:a", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash:b", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testMatchesRunsOnThePool() {
+        assertTrue(encoder.matches("a", "hash:a"));
+        assertFalse(encoder.matches("a", "hash:b"));
+        assertEquals(
+                2,
+                meterRegistry
+                        .get("password.hashing.time")
+                        .tag("operation", "matches")
+                        .timer()
+                        .count());
+    }
+}
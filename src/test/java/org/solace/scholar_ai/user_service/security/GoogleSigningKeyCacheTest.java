@@ -0,0 +1,80 @@
+package org.solace.scholar_ai.user_service.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.jsonwebtoken.Jwts;
+import java.io.IOException;
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.user_service.exception.RetryLaterException;
+
+class GoogleSigningKeyCacheTest {
+
+    private final PublicKey key = Jwts.SIG.RS256.keyPair().build().getPublic();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void testConcurrentCallersShareOneFetch() throws Exception {
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        GoogleSigningKeyCache cache = new GoogleSigningKeyCache(
+                () -> {
+                    loads.incrementAndGet();
+                    fetching.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return keys(Instant.now().plusSeconds(3600));
+                },
+                600_000);
+
+        CompletableFuture<PublicKey> first = CompletableFuture.supplyAsync(() -> cache.publicKey("kid-1"));
+        assertTrue(fetching.await(5, TimeUnit.SECONDS));
+        CompletableFuture<PublicKey> second = CompletableFuture.supplyAsync(() -> cache.publicKey("kid-1"));
+        release.countDown();
+
+        assertSame(key, first.get(5, TimeUnit.SECONDS));
+        assertSame(key, second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testFailedRefreshKeepsPreviousKeys() {
+        GoogleSigningKeyCache cache = new GoogleSigningKeyCache(
+                () -> {
+                    if (loads.incrementAndGet() > 1) {
+                        throw new IOException("Google is unreachable");
+                    }
+                    return keys(Instant.now().minusSeconds(1));
+                },
+                600_000);
+
+        assertSame(key, cache.publicKey("kid-1"));
+        // Expired, refresh fails, the old keys are still served
+        assertSame(key, cache.publicKey("kid-1"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testNoKeysAtAllAsksToRetryLater() {
+        GoogleSigningKeyCache cache = new GoogleSigningKeyCache(
+                () -> {
+                    throw new IOException("Google is unreachable");
+                },
+                600_000);
+
+        assertThrows(RetryLaterException.class, () -> cache.publicKey("kid-1"));
+    }
+
+    private GoogleSigningKeySource.Keys keys(Instant expiresAt) {
+        return new GoogleSigningKeySource.Keys(Map.of("kid-1", key), expiresAt);
+    }
+}
@@ -0,0 +1,75 @@
+package org.solace.scholar_ai.user_service.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
+import io.jsonwebtoken.Jwts;
+import java.security.KeyPair;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class GoogleVerifierUtilTest {
+
+    private static final String CLIENT_ID = "client-1";
+
+    private final KeyPair oldKey = Jwts.SIG.RS256.keyPair().build();
+    private final KeyPair newKey = Jwts.SIG.RS256.keyPair().build();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    // Google rotates to kid-2 after the first fetch
+    private final GoogleSigningKeySource source = () -> loads.incrementAndGet() == 1
+            ? new GoogleSigningKeySource.Keys(
+                    Map.of("kid-1", oldKey.getPublic()), Instant.now().plusSeconds(3600))
+            : new GoogleSigningKeySource.Keys(
+                    Map.of("kid-1", oldKey.getPublic(), "kid-2", newKey.getPublic()),
+                    Instant.now().plusSeconds(3600));
+
+    private final GoogleVerifierUtil verifier =
+            new GoogleVerifierUtil(new GoogleSigningKeyCache(source, 600_000), CLIENT_ID);
+
+    @Test
+    void testValidTokenIsVerifiedOffline() {
+        GoogleIdToken.Payload payload = verifier.verify(idToken("kid-1", oldKey, CLIENT_ID));
+
+        assertNotNull(payload);
+        assertEquals("google-1", payload.getSubject());
+        assertEquals("test@example.com", payload.getEmail());
+        assertEquals("Test User", payload.get("name"));
+        assertTrue(payload.getEmailVerified());
+    }
+
+    @Test
+    void testTokenForAnotherClientIsRejected() {
+        assertNull(verifier.verify(idToken("kid-1", oldKey, "someone-else")));
+        assertNull(verifier.verify("not-a-token"));
+    }
+
+    @Test
+    void testUnknownKeyIdRefetchesKeys() {
+        assertNotNull(verifier.verify(idToken("kid-1", oldKey, CLIENT_ID)));
+        assertNotNull(verifier.verify(idToken("kid-2", newKey, CLIENT_ID)));
+        assertEquals(2, loads.get());
+    }
+
+    private static String idToken(String keyId, KeyPair keyPair, String audience) {
+        return Jwts.builder()
+                .header()
+                .keyId(keyId)
+                .and()
+                .issuer("https://accounts.google.com")
+                .audience()
+                .add(audience)
+                .and()
+                .subject("google-1")
+                .claim("email", "test@example.com")
+                .claim("email_verified", true)
+                .claim("name", "Test User")
+                .issuedAt(new Date())
+                .expiration(Date.from(Instant.now().plusSeconds(3600)))
+                .signWith(keyPair.getPrivate())
+                .compact();
+    }
+}
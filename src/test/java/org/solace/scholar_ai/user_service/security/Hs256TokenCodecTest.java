@@ -0,0 +1,132 @@
+package org.solace.scholar_ai.user_service.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.SignatureException;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+import javax.crypto.SecretKey;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.user_service.model.UserRole;
+
+class Hs256TokenCodecTest {
+
+    private final SecretKey key = Jwts.SIG.HS256.key().build();
+    private final Hs256TokenCodec codec = new Hs256TokenCodec(key);
+
+    private final Instant issuedAt = Instant.ofEpochSecond(1_700_000_000L, 123_000_000L);
+    private final Instant expiresAt = issuedAt.plusSeconds(600);
+
+    @Test
+    void testEncodedAccessTokenMatchesJjwtByteForByte() {
+        UUID userId = UUID.randomUUID();
+
+        String expected = Jwts.builder()
+                .signWith(key, Jwts.SIG.HS256)
+                .subject("test@example.com")
+                .claim(JwtUtils.CLAIM_USER_ID, userId.toString())
+                .claim(JwtUtils.CLAIM_ROLE, UserRole.ADMIN.name())
+                .claim(JwtUtils.CLAIM_EMAIL_CONFIRMED, true)
+                .claim(JwtUtils.CLAIM_SOCIAL_USER, false)
+                .issuedAt(Date.from(issuedAt))
+                .expiration(Date.from(expiresAt))
+                .compact();
+
+        assertEquals(
+                expected,
+                codec.encode("test@example.com", null, null, userId, UserRole.ADMIN, true, false, issuedAt, expiresAt));
+    }
+
+    @Test
+    void testEncodedSubjectOnlyTokenMatchesJjwtByteForByte() {
+        String expected = Jwts.builder()
+                .signWith(key, Jwts.SIG.HS256)
+                .subject("test@example.com")
+                .issuedAt(Date.from(issuedAt))
+                .expiration(Date.from(expiresAt))
+                .compact();
+
+        assertEquals(
+                expected, codec.encode("test@example.com", null, null, null, null, null, null, issuedAt, expiresAt));
+    }
+
+    @Test
+    void testEncodedRefreshTokenMatchesJjwtByteForByte() {
+        String expected = Jwts.builder()
+                .signWith(key, Jwts.SIG.HS256)
+                .subject("test@example.com")
+                .id("token-1")
+                .claim(JwtUtils.CLAIM_SESSION_ID, "session-1")
+                .issuedAt(Date.from(issuedAt))
+                .expiration(Date.from(expiresAt))
+                .compact();
+
+        assertEquals(
+                expected,
+                codec.encode("test@example.com", "token-1", "session-1", null, null, null, null, issuedAt, expiresAt));
+        assertEquals("session-1", codec.decode(expected).sessionId());
+    }
+
+    @Test
+    void testSubjectNeedingEscapesFallsBack() {
+        assertNull(codec.encode("a\"b@example.com", null, null, null, null, null, null, issuedAt, expiresAt));
+    }
+
+    @Test
+    void testDecodesTokenIssuedByJjwt() {
+        UUID userId = UUID.randomUUID();
+        String token = Jwts.builder()
+                .signWith(key, Jwts.SIG.HS256)
+                .subject("test@example.com")
+                .claim(JwtUtils.CLAIM_USER_ID, userId.toString())
+                .claim(JwtUtils.CLAIM_ROLE, UserRole.USER.name())
+                .claim(JwtUtils.CLAIM_EMAIL_CONFIRMED, false)
+                .claim(JwtUtils.CLAIM_SOCIAL_USER, true)
+                .issuedAt(Date.from(issuedAt))
+                .expiration(Date.from(expiresAt))
+                .compact();
+
+        VerifiedToken verified = codec.decode(token);
+
+        assertEquals("test@example.com", verified.subject());
+        assertEquals(userId, verified.userId());
+        assertEquals(UserRole.USER, verified.role());
+        assertEquals(Boolean.FALSE, verified.emailConfirmed());
+        assertEquals(Boolean.TRUE, verified.socialUser());
+        assertEquals(issuedAt.getEpochSecond(), verified.issuedAt().getEpochSecond());
+        assertEquals(expiresAt.getEpochSecond(), verified.expiresAt().getEpochSecond());
+    }
+
+    @Test
+    void testTamperedSignatureIsRejected() {
+        String token = codec.encode("test@example.com", null, null, null, null, null, null, issuedAt, expiresAt);
+        String forged = new Hs256TokenCodec(Jwts.SIG.HS256.key().build())
+                .encode("admin@example.com", null, null, null, null, null, null, issuedAt, expiresAt);
+        String spliced = forged.substring(0, forged.lastIndexOf('.')) + token.substring(token.lastIndexOf('.'));
+
+        assertThrows(SignatureException.class, () -> codec.decode(spliced));
+    }
+
+    @Test
+    void testUnexpectedShapesAreLeftToJjwt() {
+        String withExtraClaim = Jwts.builder()
+                .signWith(key, Jwts.SIG.HS256)
+                .subject("test@example.com")
+                .claim("scope", "admin")
+                .expiration(Date.from(expiresAt))
+                .compact();
+        String withKeyId = Jwts.builder()
+                .header()
+                .keyId("k1")
+                .and()
+                .signWith(key, Jwts.SIG.HS256)
+                .subject("test@example.com")
+                .compact();
+
+        assertNull(codec.decode(withExtraClaim));
+        assertNull(codec.decode(withKeyId));
+        assertNull(codec.decode("not-a-token"));
+    }
+}
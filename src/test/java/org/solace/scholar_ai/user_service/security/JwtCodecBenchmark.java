@@ -0,0 +1,93 @@
+package org.solace.scholar_ai.user_service.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.SecretKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.solace.scholar_ai.user_service.model.UserRole;
+
+/**
+ * Compares {@link Hs256TokenCodec} with the jjwt builder and parser.
+ * Not part of the test suite; run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.solace.scholar_ai.user_service.security.JwtCodecBenchmark}
+ * and add {@code -prof gc} to the options to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtCodecBenchmark {
+
+    private final UUID userId = UUID.randomUUID();
+    private SecretKey key;
+    private Hs256TokenCodec codec;
+    private JwtParser parser;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        key = Jwts.SIG.HS256.key().build();
+        codec = new Hs256TokenCodec(key);
+        parser = Jwts.parser().verifyWith(key).build();
+        token = issueWithCodec();
+    }
+
+    @Benchmark
+    public String issueWithJjwt() {
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .signWith(key, Jwts.SIG.HS256)
+                .subject("test@example.com")
+                .claim(JwtUtils.CLAIM_USER_ID, userId.toString())
+                .claim(JwtUtils.CLAIM_ROLE, UserRole.USER.name())
+                .claim(JwtUtils.CLAIM_EMAIL_CONFIRMED, true)
+                .claim(JwtUtils.CLAIM_SOCIAL_USER, false)
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plusSeconds(900)))
+                .compact();
+    }
+
+    @Benchmark
+    public String issueWithCodec() {
+        Instant now = Instant.now();
+        return codec.encode(
+                "test@example.com", null, null, userId, UserRole.USER, true, false, now, now.plusSeconds(900));
+    }
+
+    @Benchmark
+    public Claims verifyWithJjwt() {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    @Benchmark
+    public VerifiedToken verifyWithCodec() {
+        return codec.decode(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                        .include(JwtCodecBenchmark.class.getSimpleName())
+                        .build())
+                .run();
+    }
+}
@@ -0,0 +1,14 @@
+package org.solace.scholar_ai.user_service.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class PasswordCostCalibratorTest {
+
+    @Test
+    void testStrengthNeverDropsBelowTheMinimum() {
+        assertEquals(PasswordCostCalibrator.MIN_STRENGTH, PasswordCostCalibrator.calibrateBCrypt(Duration.ZERO));
+    }
+}
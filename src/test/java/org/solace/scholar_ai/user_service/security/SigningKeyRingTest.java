@@ -0,0 +1,90 @@
+package org.solace.scholar_ai.user_service.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PrivateJwk;
+import java.security.KeyPair;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class SigningKeyRingTest {
+
+    private SigningKeyRing ring(String algorithm, String keys, String activeKeyId) {
+        SigningKeyRing ring = new SigningKeyRing();
+        ReflectionTestUtils.setField(ring, "algorithm", algorithm);
+        ReflectionTestUtils.setField(ring, "signingKeysJson", keys);
+        ReflectionTestUtils.setField(ring, "activeKeyId", activeKeyId);
+        ring.init();
+        return ring;
+    }
+
+    private String privateJwk(KeyPair keyPair, String keyId) {
+        PrivateJwk<?, ?, ?> jwk = Jwks.builder().keyPair(keyPair).id(keyId).build();
+        return Jwks.UNSAFE_JSON(jwk);
+    }
+
+    @Test
+    void testHs256ModePublishesNoKeys() {
+        SigningKeyRing ring = ring("HS256", "", "");
+
+        assertFalse(ring.isAsymmetric());
+        assertNull(ring.activeKey());
+        assertEquals("{\"keys\":[]}", ring.jwksJson());
+    }
+
+    @Test
+    void testEphemeralKeyIsGeneratedWhenNoneConfigured() {
+        SigningKeyRing ring = ring("ES256", "", "");
+
+        assertTrue(ring.isAsymmetric());
+        assertNotNull(ring.activeKey().privateKey());
+        assertNotNull(ring.publicKey(ring.activeKey().id()));
+        assertTrue(ring.jwksJson().contains(ring.activeKey().id()));
+    }
+
+    @Test
+    void testConfiguredKeySetSelectsActiveKeyAndPublishesAll() {
+        String keys = "{\"keys\":[" + privateJwk(Jwts.SIG.ES256.keyPair().build(), "old") + ","
+                + privateJwk(Jwts.SIG.ES256.keyPair().build(), "new") + "]}";
+
+        SigningKeyRing ring = ring("ES256", keys, "old");
+
+        assertEquals("old", ring.activeKey().id());
+        assertNotNull(ring.publicKey("new"));
+        assertNull(ring.publicKey("missing"));
+        assertTrue(ring.jwksJson().contains("\"kid\":\"old\""));
+        assertTrue(ring.jwksJson().contains("\"kid\":\"new\""));
+        assertFalse(ring.jwksJson().contains("\"d\""), "private key material must not be published");
+    }
+
+    @Test
+    void testPublicOnlyKeyCannotBeActive() {
+        KeyPair retired = Jwts.SIG.ES256.keyPair().build();
+        String keys = "{\"keys\":["
+                + Jwks.json(
+                        Jwks.builder().key(retired.getPublic()).id("retired").build()) + "]}";
+
+        assertThrows(IllegalStateException.class, () -> ring("ES256", keys, "retired"));
+    }
+
+    @Test
+    void testEdDsaKeysAreSupported() {
+        SigningKeyRing ring = ring("EdDSA", "", "");
+
+        String token = Jwts.builder()
+                .subject("test@example.com")
+                .signWith(ring.activeKey().privateKey())
+                .compact();
+
+        assertEquals(
+                "test@example.com",
+                Jwts.parser()
+                        .verifyWith(ring.publicKey(ring.activeKey().id()))
+                        .build()
+                        .parseSignedClaims(token)
+                        .getPayload()
+                        .getSubject());
+    }
+}
@@ -0,0 +1,124 @@
+package org.solace.scholar_ai.user_service.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.user_service.config.RedisCircuitBreaker;
+import org.solace.scholar_ai.user_service.service.auth.RefreshTokenService;
+import org.solace.scholar_ai.user_service.service.auth.UserLoadingService;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+class SilentRefreshCacheTest {
+
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+
+    private final RedisCircuitBreaker redisCircuitBreaker = mock(RedisCircuitBreaker.class);
+    private final JwtUtils jwtUtils = mock(JwtUtils.class);
+    private final UserLoadingService userLoadingService = mock(UserLoadingService.class);
+    private final RefreshTokenService refreshTokenService = mock(RefreshTokenService.class);
+    private final SilentRefreshCache cache = new SilentRefreshCache(
+            redisTemplate,
+            redisCircuitBreaker,
+            jwtUtils,
+            userLoadingService,
+            refreshTokenService,
+            new SimpleMeterRegistry(),
+            100);
+
+    private final UserDetails principal = new User("test@example.com", "", List.of());
+    private final AtomicInteger refreshes = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+                    ((Runnable) invocation.getArgument(0)).run();
+                    return null;
+                })
+                .when(redisCircuitBreaker)
+                .run(any(), any());
+        doAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get())
+                .when(redisCircuitBreaker)
+                .execute(any(), any());
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(jwtUtils.verifyToken("refresh-1"))
+                .thenReturn(new VerifiedToken(
+                        "test@example.com",
+                        Instant.now(),
+                        Instant.now().plusSeconds(600),
+                        null,
+                        null,
+                        null,
+                        null,
+                        "s1"));
+        when(refreshTokenService.isRefreshTokenValid("test@example.com", "s1", "refresh-1"))
+                .thenReturn(true);
+    }
+
+    @Test
+    void testRepeatedRefreshesAreMintedOnceAndShared() {
+        SilentRefreshCache.SilentRefresh first = cache.get("refresh-1", this::countedMint);
+
+        assertSame(first, cache.get("refresh-1", this::countedMint));
+
+        assertEquals(1, refreshes.get());
+        verify(valueOperations).set(startsWith("silent_refresh:"), eq("access-1"), any(Duration.class));
+    }
+
+    @Test
+    void testRefreshFromAnotherReplicaIsReused() {
+        when(valueOperations.get(startsWith("silent_refresh:"))).thenReturn("access-1");
+        when(jwtUtils.verifyToken("access-1"))
+                .thenReturn(new VerifiedToken(
+                        "test@example.com", Instant.now(), Instant.now().plusSeconds(60)));
+        when(userLoadingService.loadPrincipalByUsername("test@example.com")).thenReturn(principal);
+
+        SilentRefreshCache.SilentRefresh refreshed = cache.get("refresh-1", this::countedMint);
+
+        assertEquals("access-1", refreshed.accessToken());
+        assertSame(principal, refreshed.principal());
+        assertEquals(0, refreshes.get());
+    }
+
+    @Test
+    void testMemoOfRevokedRefreshTokenIsDropped() {
+        cache.get("refresh-1", this::countedMint);
+        when(refreshTokenService.isRefreshTokenValid("test@example.com", "s1", "refresh-1"))
+                .thenReturn(false);
+
+        assertNull(cache.get("refresh-1", this::countedMint));
+
+        verify(redisTemplate).delete(startsWith("silent_refresh:"));
+        assertNull(cache.get("refresh-1", () -> null));
+    }
+
+    @Test
+    void testRejectedRefreshIsNotMemoized() {
+        assertNull(cache.get("refresh-1", () -> null));
+        assertNotNull(cache.get("refresh-1", this::countedMint));
+    }
+
+    private SilentRefreshCache.SilentRefresh countedMint() {
+        refreshes.incrementAndGet();
+        return mint();
+    }
+
+    private SilentRefreshCache.SilentRefresh mint() {
+        return new SilentRefreshCache.SilentRefresh("access-1", Instant.now().plusSeconds(60), principal);
+    }
+}
@@ -0,0 +1,91 @@
+package org.solace.scholar_ai.user_service.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class VerifiedTokenCacheTest {
+
+    private VerifiedTokenCache cache;
+    private AtomicInteger verifications;
+
+    @BeforeEach
+    void setUp() {
+        cache = new VerifiedTokenCache(new SimpleMeterRegistry(), 100);
+        verifications = new AtomicInteger();
+    }
+
+    @Test
+    void testValidTokenIsVerifiedOnce() {
+        VerifiedToken token = new VerifiedToken(
+                "test@example.com", Instant.now(), Instant.now().plusSeconds(60));
+
+        VerifiedToken first = cache.get("token-a", t -> {
+            verifications.incrementAndGet();
+            return token;
+        });
+        VerifiedToken second = cache.get("token-a", t -> {
+            verifications.incrementAndGet();
+            return token;
+        });
+
+        assertSame(token, first);
+        assertSame(token, second);
+        assertEquals(1, verifications.get());
+    }
+
+    @Test
+    void testInvalidTokenIsNotCached() {
+        assertNull(cache.get("bad-token", t -> {
+            verifications.incrementAndGet();
+            return null;
+        }));
+        assertNull(cache.get("bad-token", t -> {
+            verifications.incrementAndGet();
+            return null;
+        }));
+
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void testExpiredTokenIsNotCached() {
+        VerifiedToken expired = new VerifiedToken(
+                "test@example.com",
+                Instant.now().minusSeconds(120),
+                Instant.now().minusSeconds(60));
+
+        cache.get("expired-token", t -> {
+            verifications.incrementAndGet();
+            return expired;
+        });
+        cache.get("expired-token", t -> {
+            verifications.incrementAndGet();
+            return expired;
+        });
+
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void testInvalidateForcesReverification() {
+        VerifiedToken token = new VerifiedToken(
+                "test@example.com", Instant.now(), Instant.now().plusSeconds(60));
+
+        cache.get("token-b", t -> {
+            verifications.incrementAndGet();
+            return token;
+        });
+        cache.invalidate("token-b");
+        cache.get("token-b", t -> {
+            verifications.incrementAndGet();
+            return token;
+        });
+
+        assertEquals(2, verifications.get());
+    }
+}
@@ -0,0 +1,100 @@
+package org.solace.scholar_ai.user_service.service.auth;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.solace.scholar_ai.user_service.model.CredentialType;
+import org.solace.scholar_ai.user_service.model.User;
+import org.solace.scholar_ai.user_service.model.UserRole;
+import org.solace.scholar_ai.user_service.repository.LoginCredentials;
+import org.solace.scholar_ai.user_service.repository.UserIdentityProviderRepository;
+import org.solace.scholar_ai.user_service.repository.UserProfileRepository;
+import org.solace.scholar_ai.user_service.repository.UserRepository;
+import org.solace.scholar_ai.user_service.security.JwtUtils;
+import org.solace.scholar_ai.user_service.service.notification.NotificationService;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+class AuthServiceTest {
+
+    private static final String EMAIL = "test@example.com";
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final OtpService otpService = mock(OtpService.class);
+
+    private final AuthService authService = new AuthService(
+            userRepository,
+            mock(UserIdentityProviderRepository.class),
+            mock(UserProfileRepository.class),
+            mock(UserLoadingService.class),
+            passwordEncoder,
+            mock(JwtUtils.class),
+            mock(RefreshTokenService.class),
+            notificationService,
+            mock(PrincipalCache.class),
+            otpService);
+
+    @Test
+    void testSocialAccountIsRejectedWithoutHashing() {
+        when(userRepository.findLoginCredentialsByEmail(EMAIL))
+                .thenReturn(Optional.of(new LoginCredentials(
+                        UUID.randomUUID(), EMAIL, "", UserRole.USER, true, CredentialType.SOCIAL)));
+
+        assertThrows(BadCredentialsException.class, () -> authService.authentication(EMAIL, "guess"));
+        assertThrows(BadCredentialsException.class, () -> authService.loginUser(EMAIL, "guess"));
+        verifyNoInteractions(passwordEncoder);
+    }
+
+    @Test
+    void testRegistrationFailsWhenTheVerificationEmailCannotBeQueued() {
+        User saved = new User();
+        saved.setEmail(EMAIL);
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.empty()).thenReturn(Optional.of(saved));
+        when(userRepository.save(any(User.class))).thenReturn(saved);
+        doThrow(new IllegalStateException("outbox unavailable"))
+                .when(notificationService)
+                .sendEmailVerificationEmail(eq(EMAIL), any(), any());
+
+        // Rethrown so the account is rolled back with it instead of committed without a code
+        assertThrows(IllegalStateException.class, () -> authService.registerUser(EMAIL, "secret", UserRole.USER));
+    }
+
+    @Test
+    void testHashUpgradeOnLoginKeepsOutstandingResetCodeValid() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail(EMAIL);
+        user.setRole(UserRole.USER);
+        user.setEncryptedPassword("old-hash");
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+        when(userRepository.findLoginCredentialsByEmail(EMAIL))
+                .thenReturn(Optional.of(new LoginCredentials(
+                        user.getId(), EMAIL, "old-hash", UserRole.USER, true, CredentialType.PASSWORD)));
+        when(passwordEncoder.matches("secret", "old-hash")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("old-hash")).thenReturn(true);
+        when(passwordEncoder.encode(any())).thenReturn("new-hash");
+        ArgumentCaptor<String> nonces = ArgumentCaptor.forClass(String.class);
+        when(otpService.issue(eq(OtpService.Purpose.PASSWORD_RESET), eq(EMAIL), nonces.capture()))
+                .thenReturn("123456");
+
+        authService.generateResetCode(EMAIL);
+        // Logging in elsewhere re-encodes the stored hash
+        authService.authentication(EMAIL, "secret");
+        assertEquals("new-hash", user.getEncryptedPassword());
+        when(otpService.verify(OtpService.Purpose.PASSWORD_RESET, EMAIL, nonces.getValue(), "123456"))
+                .thenReturn(true);
+
+        authService.verifyCodeAndResetPassword(EMAIL, "123456", "new-secret");
+
+        assertNotNull(user.getPasswordChangedAt());
+        verify(otpService).verify(OtpService.Purpose.PASSWORD_RESET, EMAIL, nonces.getValue(), "123456");
+    }
+}
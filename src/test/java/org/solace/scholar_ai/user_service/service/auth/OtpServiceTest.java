@@ -0,0 +1,112 @@
+package org.solace.scholar_ai.user_service.service.auth;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.user_service.config.RedisCircuitBreaker;
+import org.solace.scholar_ai.user_service.exception.CustomException;
+import org.solace.scholar_ai.user_service.exception.RetryLaterException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpStatus;
+
+class OtpServiceTest {
+
+    private static final String EMAIL = "test@example.com";
+    private static final String NONCE = "nonce";
+
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+
+    private final RedisCircuitBreaker redisCircuitBreaker = mock(RedisCircuitBreaker.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OtpService otpService = new OtpService(
+            redisTemplate,
+            redisCircuitBreaker,
+            meterRegistry,
+            new StatelessOtpCodes(redisTemplate, redisCircuitBreaker, false, "", 600_000, 1024),
+            600_000,
+            5,
+            900_000);
+
+    @BeforeEach
+    void callRedis() {
+        doAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get())
+                .when(redisCircuitBreaker)
+                .execute(any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testIssuedCodesAreSixDigits() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(keys()), any(), any()))
+                .thenReturn(0L);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(otpService
+                    .issue(OtpService.Purpose.EMAIL_VERIFICATION, EMAIL, NONCE)
+                    .matches("^\\d{6}$"));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testNoCodeIsIssuedWhileLockedOut() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(keys()), any(), any()))
+                .thenReturn(60_000L);
+
+        RetryLaterException locked = assertThrows(
+                RetryLaterException.class, () -> otpService.issue(OtpService.Purpose.EMAIL_VERIFICATION, EMAIL, NONCE));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, locked.getStatus());
+        assertEquals(Duration.ofMinutes(1), locked.getRetryAfter());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testVerifyMapsScriptOutcomes() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(keys()), eq("123456"), eq("5"), eq("900000")))
+                .thenReturn(List.of("OK"));
+        when(redisTemplate.execute(any(RedisScript.class), eq(keys()), eq("000000"), eq("5"), eq("900000")))
+                .thenReturn(List.of("MISMATCH", "4"));
+        when(redisTemplate.execute(any(RedisScript.class), eq(keys()), eq("999999"), eq("5"), eq("900000")))
+                .thenReturn(List.of("LOCKED", "900000"));
+
+        assertTrue(otpService.verify(OtpService.Purpose.EMAIL_VERIFICATION, EMAIL, NONCE, "123456"));
+        assertFalse(otpService.verify(OtpService.Purpose.EMAIL_VERIFICATION, EMAIL, NONCE, "000000"));
+        RetryLaterException locked = assertThrows(
+                RetryLaterException.class,
+                () -> otpService.verify(OtpService.Purpose.EMAIL_VERIFICATION, EMAIL, NONCE, "999999"));
+        assertEquals(Duration.ofMinutes(15), locked.getRetryAfter());
+        assertEquals(
+                1,
+                meterRegistry
+                        .get("auth.otp.verifications")
+                        .tag("outcome", "MISMATCH")
+                        .counter()
+                        .count());
+    }
+
+    @Test
+    void testRedisUnavailableIsReportedAsServiceUnavailable() {
+        doAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get())
+                .when(redisCircuitBreaker)
+                .execute(any(), any());
+
+        CustomException unavailable = assertThrows(
+                CustomException.class,
+                () -> otpService.verify(OtpService.Purpose.PASSWORD_RESET, EMAIL, NONCE, "123456"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, unavailable.getStatus());
+    }
+
+    private static List<String> keys() {
+        return List.of("otp:verification:" + EMAIL, "otp:verification:locked:" + EMAIL);
+    }
+}
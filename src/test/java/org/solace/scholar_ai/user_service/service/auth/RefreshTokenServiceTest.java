@@ -0,0 +1,169 @@
+package org.solace.scholar_ai.user_service.service.auth;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.user_service.config.RedisCircuitBreaker;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+class RefreshTokenServiceTest {
+
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+
+    @SuppressWarnings("unchecked")
+    private final HashOperations<String, Object, Object> hashOperations = mock(HashOperations.class);
+
+    private final RedisCircuitBreaker redisCircuitBreaker = mock(RedisCircuitBreaker.class);
+    private final RefreshTokenService service = new RefreshTokenService(
+            redisTemplate,
+            mock(SessionPresenceRegistry.class),
+            redisCircuitBreaker,
+            new SimpleMeterRegistry(),
+            60_000,
+            100,
+            10,
+            5_000);
+
+    private boolean redisAvailable = true;
+
+    @BeforeEach
+    void setUp() {
+        // Route breaker calls to Redis or to the fallback depending on redisAvailable
+        doAnswer(invocation -> {
+                    ((Runnable) invocation.getArgument(redisAvailable ? 0 : 1)).run();
+                    return null;
+                })
+                .when(redisCircuitBreaker)
+                .run(any(), any());
+        doAnswer(invocation -> ((Supplier<?>) invocation.getArgument(redisAvailable ? 0 : 1)).get())
+                .when(redisCircuitBreaker)
+                .execute(any(), any());
+        doReturn(hashOperations).when(redisTemplate).opsForHash();
+    }
+
+    @Test
+    void testTokenSavedDuringOutageIsServedFromFallback() {
+        redisAvailable = false;
+
+        service.saveRefreshToken("test@example.com", "s1", "token-1", "Firefox");
+
+        assertEquals("token-1", service.getRefreshToken("test@example.com", "s1"));
+        assertTrue(service.isRefreshTokenValid("test@example.com", "s1", "token-1"));
+        assertFalse(service.isRefreshTokenValid("test@example.com", "s2", "token-1"));
+    }
+
+    @Test
+    void testDeletionDuringOutageHidesTheRedisToken() {
+        when(hashOperations.get("session:{test@example.com}:s1", "token")).thenReturn("token-1");
+        redisAvailable = false;
+
+        service.deleteRefreshToken("test@example.com", "s1");
+        redisAvailable = true;
+
+        assertNull(service.getRefreshToken("test@example.com", "s1"));
+    }
+
+    @Test
+    void testRevokingAllDuringOutageHidesEverySession() {
+        when(hashOperations.get("session:{test@example.com}:s1", "token")).thenReturn("token-1");
+        redisAvailable = false;
+        service.saveRefreshToken("test@example.com", "s2", "token-2", null);
+
+        service.deleteAllRefreshTokens("test@example.com");
+        redisAvailable = true;
+
+        assertNull(service.getRefreshToken("test@example.com", "s1"));
+        assertNull(service.getRefreshToken("test@example.com", "s2"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRevocationSurvivesFallbackEvictionAndFailedReplay() {
+        when(hashOperations.get("session:{test@example.com}:s1", "token")).thenReturn("token-1");
+        redisAvailable = false;
+        service.deleteRefreshToken("test@example.com", "s1");
+        // Far more saves than the fallback storage holds
+        for (int i = 0; i < 1_000; i++) {
+            service.saveRefreshToken("user" + i + "@example.com", "s1", "token-" + i, null);
+        }
+        redisAvailable = true;
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenThrow(new IllegalStateException("down"));
+
+        service.replayFallbackStorage();
+
+        assertNull(service.getRefreshToken("test@example.com", "s1"));
+        assertEquals(
+                RefreshTokenService.RotationOutcome.UNKNOWN,
+                service.rotateRefreshToken("test@example.com", "s1", "token-1", "token-2", "access-2")
+                        .outcome());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRotationReportsReuseFromTheScript() {
+        doReturn(List.of("REUSED")).when(redisTemplate).execute(any(RedisScript.class), anyList(), any(Object[].class));
+
+        RefreshTokenService.Rotation rotation =
+                service.rotateRefreshToken("test@example.com", "s1", "token-0", "token-2", "access-2");
+
+        assertEquals(RefreshTokenService.RotationOutcome.REUSED, rotation.outcome());
+        assertNull(rotation.refreshToken());
+    }
+
+    @Test
+    void testRotationOfSessionSavedDuringOutageStaysLocal() {
+        redisAvailable = false;
+        service.saveRefreshToken("test@example.com", "s1", "token-1", null);
+
+        RefreshTokenService.Rotation rotation =
+                service.rotateRefreshToken("test@example.com", "s1", "token-1", "token-2", "access-2");
+
+        assertEquals(RefreshTokenService.RotationOutcome.ROTATED, rotation.outcome());
+        assertEquals("token-2", service.getRefreshToken("test@example.com", "s1"));
+        assertEquals(
+                RefreshTokenService.RotationOutcome.UNKNOWN,
+                service.rotateRefreshToken("test@example.com", "s1", "token-1", "token-3", "access-3")
+                        .outcome());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSaveWritesSessionAndIndexInOneScript() {
+        service.saveRefreshToken("test@example.com", "s1", "token-1", "Firefox");
+
+        verify(redisTemplate)
+                .execute(
+                        any(RedisScript.class),
+                        eq(List.of("session:{test@example.com}:s1", "sessions:{test@example.com}")),
+                        eq("s1"),
+                        eq("token-1"),
+                        eq("Firefox"),
+                        anyString(),
+                        eq("60000"),
+                        eq("10"),
+                        eq("session:{test@example.com}:"));
+    }
+
+    @Test
+    void testReplayClearsFallbackOnceRedisAcceptsTheBatch() {
+        redisAvailable = false;
+        service.saveRefreshToken("test@example.com", "s1", "token-1", null);
+        redisAvailable = true;
+        when(hashOperations.get("session:{test@example.com}:s1", "token")).thenReturn("token-2");
+
+        service.replayFallbackStorage();
+
+        verify(redisTemplate).executePipelined(any(RedisCallback.class));
+        assertEquals("token-2", service.getRefreshToken("test@example.com", "s1"));
+    }
+}
@@ -0,0 +1,71 @@
+package org.solace.scholar_ai.user_service.service.auth;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.user_service.config.RedisCircuitBreaker;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class SessionPresenceRegistryTest {
+
+    @SuppressWarnings("unchecked")
+    private final SessionPresenceRegistry registry = new SessionPresenceRegistry(
+            mock(RedisTemplate.class),
+            mock(RedisMessageListenerContainer.class),
+            mock(RedisCircuitBreaker.class),
+            new SimpleMeterRegistry());
+
+    private void receive(String body) {
+        registry.onMessage(
+                new DefaultMessage(
+                        "user-service:session-presence".getBytes(StandardCharsets.UTF_8),
+                        body.getBytes(StandardCharsets.UTF_8)),
+                null);
+    }
+
+    @Test
+    void testUnknownUsersArePresentUntilSeeded() {
+        assertTrue(registry.isPresent("test@example.com"));
+
+        ReflectionTestUtils.setField(registry, "seeded", true);
+
+        assertFalse(registry.isPresent("test@example.com"));
+    }
+
+    @Test
+    void testLocalChangesAreVisibleImmediately() {
+        ReflectionTestUtils.setField(registry, "seeded", true);
+
+        registry.markPresent("test@example.com", System.currentTimeMillis() + 60_000);
+        assertTrue(registry.isPresent("test@example.com"));
+
+        registry.markAbsent("test@example.com");
+        assertFalse(registry.isPresent("test@example.com"));
+    }
+
+    @Test
+    void testChangesFromOtherReplicasAreApplied() {
+        ReflectionTestUtils.setField(registry, "seeded", true);
+
+        receive("+" + (System.currentTimeMillis() + 60_000) + "|test@example.com");
+        assertTrue(registry.isPresent("test@example.com"));
+
+        receive("-|test@example.com");
+        assertFalse(registry.isPresent("test@example.com"));
+    }
+
+    @Test
+    void testExpiredSessionsDropOut() {
+        ReflectionTestUtils.setField(registry, "seeded", true);
+
+        registry.markPresent("test@example.com", System.currentTimeMillis() - 1);
+
+        assertFalse(registry.isPresent("test@example.com"));
+    }
+}
@@ -0,0 +1,170 @@
+package org.solace.scholar_ai.user_service.service.auth;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.user_service.dto.auth.AuthResponse;
+import org.solace.scholar_ai.user_service.dto.auth.providers.GitHubEmailDTO;
+import org.solace.scholar_ai.user_service.dto.auth.providers.GitHubUserDTO;
+import org.solace.scholar_ai.user_service.model.CredentialType;
+import org.solace.scholar_ai.user_service.model.User;
+import org.solace.scholar_ai.user_service.model.UserIdentityProvider;
+import org.solace.scholar_ai.user_service.model.UserRole;
+import org.solace.scholar_ai.user_service.repository.UserRepository;
+import org.solace.scholar_ai.user_service.security.GoogleVerifierUtil;
+import org.solace.scholar_ai.user_service.security.JwtUtils;
+import org.solace.scholar_ai.user_service.service.notification.NotificationService;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+class SocialAuthServiceTest {
+
+    private static final String EMAIL = "test@example.com";
+
+    private final JwtUtils jwtUtils = mock(JwtUtils.class);
+    private final RefreshTokenService refreshTokenService = mock(RefreshTokenService.class);
+    private final GoogleVerifierUtil googleVerifierUtil = mock(GoogleVerifierUtil.class);
+    private final RestTemplate restTemplate = mock(RestTemplate.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final SocialAuthService socialAuthService = new SocialAuthService(
+            jwtUtils,
+            refreshTokenService,
+            googleVerifierUtil,
+            restTemplate,
+            userRepository,
+            notificationService,
+            new TransactionTemplate(transactionManager));
+
+    @BeforeEach
+    void setUp() {
+        GoogleIdToken.Payload payload = new GoogleIdToken.Payload();
+        payload.setEmail(EMAIL);
+        payload.setSubject("google-1");
+        when(googleVerifierUtil.verify("id-token")).thenReturn(payload);
+        when(refreshTokenService.newSessionId()).thenReturn("sid-1");
+        when(jwtUtils.generateAccessToken(any(User.class))).thenReturn("access");
+        when(jwtUtils.generateRefreshToken(EMAIL, "sid-1")).thenReturn("refresh");
+        ReflectionTestUtils.setField(socialAuthService, "githubOAuthBaseUrl", "https://github.test");
+        ReflectionTestUtils.setField(socialAuthService, "githubApiBaseUrl", "https://api.github.test");
+    }
+
+    @Test
+    void testFirstLoginCreatesAccountInOneStatement() {
+        UUID id = UUID.randomUUID();
+        when(userRepository.findWithIdentityProvidersByEmail(EMAIL)).thenReturn(Optional.empty());
+        when(userRepository.insertSocialUser(EMAIL, "GOOGLE", "google-1")).thenReturn(Optional.of(id));
+
+        AuthResponse response = socialAuthService.loginWithGoogle("id-token");
+
+        assertEquals(id, response.getUserId());
+        assertEquals(UserRole.USER, response.getRole());
+        verify(jwtUtils).generateAccessToken(argThat((User user) -> user.getCredentialType() == CredentialType.SOCIAL));
+        verify(userRepository, times(1)).findWithIdentityProvidersByEmail(EMAIL);
+        verify(notificationService).sendWelcomeEmail(EMAIL, "test");
+    }
+
+    @Test
+    void testFirstLoginIsRolledBackWhenTheWelcomeEmailCannotBeQueued() {
+        when(userRepository.findWithIdentityProvidersByEmail(EMAIL)).thenReturn(Optional.empty());
+        when(userRepository.insertSocialUser(EMAIL, "GOOGLE", "google-1")).thenReturn(Optional.of(UUID.randomUUID()));
+        doThrow(new IllegalStateException("outbox unavailable"))
+                .when(notificationService)
+                .sendWelcomeEmail(EMAIL, "test");
+
+        assertThrows(IllegalStateException.class, () -> socialAuthService.loginWithGoogle("id-token"));
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        verify(jwtUtils, never()).generateAccessToken(any(User.class));
+    }
+
+    @Test
+    void testLosingAConcurrentFirstLoginSignsIntoTheWinnersAccount() {
+        User winner = googleUser();
+        when(userRepository.findWithIdentityProvidersByEmail(EMAIL))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(winner));
+        when(userRepository.insertSocialUser(EMAIL, "GOOGLE", "google-1")).thenReturn(Optional.empty());
+
+        AuthResponse response = socialAuthService.loginWithGoogle("id-token");
+
+        assertEquals(winner.getId(), response.getUserId());
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void testPasswordAccountIsRejected() {
+        User passwordUser = googleUser();
+        passwordUser.setIdentityProviders(List.of());
+        when(userRepository.findWithIdentityProvidersByEmail(EMAIL)).thenReturn(Optional.of(passwordUser));
+
+        assertThrows(BadCredentialsException.class, () -> socialAuthService.loginWithGoogle("id-token"));
+        verify(userRepository, never()).insertSocialUser(any(), any(), any());
+    }
+
+    @Test
+    void testGitHubProfileAndEmailsAreFetchedConcurrently() {
+        when(restTemplate.postForEntity(eq("https://github.test/login/oauth/access_token"), any(), eq(Map.class)))
+                .thenReturn(ResponseEntity.ok(Map.of("access_token", "gh-token")));
+        // Each call waits for the other, so this only completes if they overlap
+        CountDownLatch bothInFlight = new CountDownLatch(2);
+        when(restTemplate.exchange(
+                        eq("https://api.github.test/user"), eq(HttpMethod.GET), any(), eq(GitHubUserDTO.class)))
+                .thenAnswer(invocation -> {
+                    awaitOther(bothInFlight);
+                    return ResponseEntity.ok(new GitHubUserDTO(7L, "octo", null, null));
+                });
+        when(restTemplate.exchange(
+                        eq("https://api.github.test/user/emails"),
+                        eq(HttpMethod.GET),
+                        any(),
+                        eq(GitHubEmailDTO[].class)))
+                .thenAnswer(invocation -> {
+                    awaitOther(bothInFlight);
+                    return ResponseEntity.ok(new GitHubEmailDTO[] {
+                        new GitHubEmailDTO("old@example.com", false, true), new GitHubEmailDTO(EMAIL, true, true)
+                    });
+                });
+        when(userRepository.findWithIdentityProvidersByEmail(EMAIL)).thenReturn(Optional.empty());
+        when(userRepository.insertSocialUser(EMAIL, "GITHUB", "7")).thenReturn(Optional.of(UUID.randomUUID()));
+
+        AuthResponse response = socialAuthService.loginWithGithub("code");
+
+        assertEquals(EMAIL, response.getEmail());
+    }
+
+    private static void awaitOther(CountDownLatch bothInFlight) throws InterruptedException {
+        bothInFlight.countDown();
+        assertTrue(bothInFlight.await(5, TimeUnit.SECONDS), "GitHub calls ran one after the other");
+    }
+
+    private User googleUser() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail(EMAIL);
+        user.setRole(UserRole.USER);
+        UserIdentityProvider identityProvider = new UserIdentityProvider();
+        identityProvider.setUser(user);
+        identityProvider.setProvider("GOOGLE");
+        identityProvider.setProviderUserId("google-1");
+        user.setIdentityProviders(List.of(identityProvider));
+        return user;
+    }
+}
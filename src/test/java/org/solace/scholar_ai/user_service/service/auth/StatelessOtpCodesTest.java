@@ -0,0 +1,63 @@
+package org.solace.scholar_ai.user_service.service.auth;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.user_service.config.RedisCircuitBreaker;
+import org.springframework.data.redis.core.RedisTemplate;
+
+class StatelessOtpCodesTest {
+
+    private static final String EMAIL = "test@example.com";
+    private static final String NONCE = "user-id:password-hash";
+    private static final long WINDOW_MS = 600_000;
+    private static final long NOW = 1_700_000_000_000L;
+
+    private final RedisCircuitBreaker redisCircuitBreaker = mock(RedisCircuitBreaker.class);
+
+    @SuppressWarnings("unchecked")
+    private final StatelessOtpCodes codes = new StatelessOtpCodes(
+            mock(RedisTemplate.class),
+            redisCircuitBreaker,
+            true,
+            "a-test-secret-that-is-long-enough-for-hmac",
+            WINDOW_MS,
+            1 << 16);
+
+    @BeforeEach
+    void useLocalReplayGuard() {
+        doAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get())
+                .when(redisCircuitBreaker)
+                .execute(any(), any());
+    }
+
+    @Test
+    void testCodeIsAcceptedOnceWithinItsWindowAndTheNext() {
+        String code = codes.issue(OtpService.Purpose.EMAIL_VERIFICATION, EMAIL, NONCE, NOW);
+        assertTrue(code.matches("^\\d{6}$"));
+
+        assertTrue(codes.verify(OtpService.Purpose.EMAIL_VERIFICATION, EMAIL, NONCE, code, NOW + WINDOW_MS));
+        // Replayed
+        assertFalse(codes.verify(OtpService.Purpose.EMAIL_VERIFICATION, EMAIL, NONCE, code, NOW + WINDOW_MS));
+    }
+
+    @Test
+    void testCodeIsRejectedOutsideItsWindowsOrForAnotherAccountState() {
+        String code = codes.issue(OtpService.Purpose.PASSWORD_RESET, EMAIL, NONCE, NOW);
+
+        assertFalse(codes.verify(OtpService.Purpose.PASSWORD_RESET, EMAIL, NONCE, code, NOW + 2 * WINDOW_MS));
+        assertFalse(codes.verify(OtpService.Purpose.PASSWORD_RESET, EMAIL, "user-id:new-hash", code, NOW));
+        assertFalse(codes.verify(OtpService.Purpose.EMAIL_VERIFICATION, EMAIL, NONCE, code, NOW));
+    }
+
+    @Test
+    void testShortSecretIsRefused() {
+        assertThrows(
+                IllegalStateException.class,
+                () -> new StatelessOtpCodes(null, redisCircuitBreaker, true, "short", WINDOW_MS, 1024));
+    }
+}
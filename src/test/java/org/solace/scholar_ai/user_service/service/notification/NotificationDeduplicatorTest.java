@@ -0,0 +1,116 @@
+package org.solace.scholar_ai.user_service.service.notification;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.user_service.config.RedisCircuitBreaker;
+import org.solace.scholar_ai.user_service.dto.notification.NotificationRequest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+class NotificationDeduplicatorTest {
+
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+
+    private final RedisCircuitBreaker redisCircuitBreaker = mock(RedisCircuitBreaker.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final NotificationDeduplicator deduplicator = new NotificationDeduplicator(
+            redisTemplate, redisCircuitBreaker, meterRegistry, new ObjectMapper(), true, 60_000, 1_000);
+
+    @BeforeEach
+    void callRedis() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        doAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get())
+                .when(redisCircuitBreaker)
+                .execute(any(), any());
+        doAnswer(invocation -> {
+                    ((Runnable) invocation.getArgument(0)).run();
+                    return null;
+                })
+                .when(redisCircuitBreaker)
+                .run(any(), any());
+    }
+
+    @Test
+    void testRepeatIsSuppressedWithoutAskingRedisAgain() {
+        when(valueOperations.setIfAbsent(anyString(), eq("1"), eq(Duration.ofMinutes(1))))
+                .thenReturn(true);
+
+        assertTrue(deduplicator.claim(welcome(Map.of("userName", "Test", "appName", "ScholarAI"))));
+        // Same template data, built in another order
+        Map<String, Object> reordered = new LinkedHashMap<>();
+        reordered.put("appName", "ScholarAI");
+        reordered.put("userName", "Test");
+        assertFalse(deduplicator.claim(welcome(reordered)));
+
+        verify(valueOperations, times(1)).setIfAbsent(anyString(), anyString(), any(Duration.class));
+        assertEquals(
+                1,
+                meterRegistry
+                        .get("notification.dedup.suppressed")
+                        .tag("source", "local")
+                        .counter()
+                        .count());
+    }
+
+    @Test
+    void testClaimHeldByAnotherReplicaSuppresses() {
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenReturn(false);
+
+        assertFalse(deduplicator.claim(welcome(Map.of("userName", "Test"))));
+        assertEquals(
+                1,
+                meterRegistry
+                        .get("notification.dedup.suppressed")
+                        .tag("source", "shared")
+                        .counter()
+                        .count());
+    }
+
+    @Test
+    void testReleasedClaimCanBeTakenAgain() {
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenReturn(true);
+        NotificationRequest request = welcome(Map.of("userName", "Test"));
+
+        assertTrue(deduplicator.claim(request));
+        deduplicator.release(request);
+        assertTrue(deduplicator.claim(request));
+
+        verify(redisTemplate).delete(deduplicator.key(request));
+    }
+
+    @Test
+    void testDifferentTemplateDataIsNotADuplicate() {
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenReturn(true);
+
+        assertTrue(deduplicator.claim(welcome(Map.of("verificationCode", "123456"))));
+        assertTrue(deduplicator.claim(welcome(Map.of("verificationCode", "654321"))));
+    }
+
+    private static NotificationRequest welcome(Map<String, Object> templateData) {
+        return NotificationRequest.builder()
+                .notificationType(NotificationRequest.NotificationType.WELCOME_EMAIL.name())
+                .recipientEmail("test@example.com")
+                .recipientName("Test")
+                .templateData(templateData)
+                .build();
+    }
+}
@@ -0,0 +1,141 @@
+package org.solace.scholar_ai.user_service.service.notification;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.user_service.dto.notification.NotificationRequest;
+import org.solace.scholar_ai.user_service.model.NotificationOutboxEntry;
+import org.solace.scholar_ai.user_service.repository.NotificationOutboxRepository;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.AmqpException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class NotificationOutboxRelayTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final NotificationOutboxRepository outboxRepository = mock(NotificationOutboxRepository.class);
+    private final NotificationPublisher publisher = mock(NotificationPublisher.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final NotificationOutboxRelay relay = new NotificationOutboxRelay(
+            outboxRepository,
+            publisher,
+            objectMapper,
+            new SimpleMeterRegistry(),
+            transactionManager,
+            10,
+            300_000,
+            3,
+            60_000);
+
+    @Test
+    void testConfirmedEntriesAreDeletedAndNackedOnesBackedOff() throws Exception {
+        NotificationOutboxEntry first = entry("a@example.com");
+        NotificationOutboxEntry second = entry("b@example.com");
+        when(outboxRepository.lockDueEntries(NOW, 10)).thenReturn(List.of(first, second));
+        when(publisher.publish(any()))
+                .thenAnswer(invocation -> "a@example.com"
+                                .equals(invocation
+                                        .<NotificationRequest>getArgument(0)
+                                        .getRecipientEmail())
+                        ? CompletableFuture.completedFuture(null)
+                        : CompletableFuture.failedFuture(new AmqpException("Broker nacked notification")));
+
+        assertEquals(1, relay.relayBatch(NOW));
+
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(first.getId()));
+        verify(outboxRepository)
+                .recordFailedAttempt(eq(second.getId()), eq(1), eq(NOW.plus(Duration.ofSeconds(1))), isNull(), any());
+    }
+
+    @Test
+    void testBatchIsPublishedOutsideTheClaimTransaction() throws Exception {
+        NotificationOutboxEntry entry = entry("a@example.com");
+        when(outboxRepository.lockDueEntries(NOW, 10)).thenReturn(List.of(entry));
+        when(publisher.publish(any())).thenAnswer(invocation -> {
+            // The claim has committed and hidden the row for the lease
+            verify(transactionManager).commit(any());
+            assertEquals(NOW.plus(Duration.ofMinutes(1)), entry.getAvailableAt());
+            return CompletableFuture.completedFuture(null);
+        });
+
+        assertEquals(1, relay.relayBatch(NOW));
+
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void testBrokerFailureBacksOffAndHandsTheRestBack() throws Exception {
+        NotificationOutboxEntry first = entry("a@example.com");
+        NotificationOutboxEntry second = entry("b@example.com");
+        first.setAttempts(1);
+        when(outboxRepository.lockDueEntries(NOW, 10)).thenReturn(List.of(first, second));
+        when(publisher.publish(any())).thenThrow(new AmqpConnectException(new RuntimeException("connection refused")));
+
+        assertEquals(0, relay.relayBatch(NOW));
+
+        verify(outboxRepository)
+                .recordFailedAttempt(eq(first.getId()), eq(2), eq(NOW.plus(Duration.ofSeconds(2))), isNull(), any());
+        verify(publisher, times(1)).publish(any());
+        verify(outboxRepository).release(List.of(second.getId()), NOW);
+        verify(outboxRepository, never()).recordFailedAttempt(eq(second.getId()), anyInt(), any(), any(), any());
+    }
+
+    @Test
+    void testEntryIsMarkedFailedAfterMaxAttempts() throws Exception {
+        NotificationOutboxEntry exhausted = entry("a@example.com");
+        exhausted.setAttempts(2);
+        NotificationOutboxEntry unreadable = entry("b@example.com");
+        unreadable.setPayload("{not json");
+        when(outboxRepository.lockDueEntries(NOW, 10)).thenReturn(List.of(exhausted, unreadable));
+        when(publisher.publish(any()))
+                .thenReturn(CompletableFuture.failedFuture(new AmqpException("Broker nacked notification")));
+
+        assertEquals(0, relay.relayBatch(NOW));
+
+        verify(outboxRepository).recordFailedAttempt(eq(exhausted.getId()), eq(3), any(), eq(NOW), any());
+        verify(outboxRepository).recordFailedAttempt(eq(unreadable.getId()), eq(1), any(), eq(NOW), any());
+        verify(publisher, times(1)).publish(any());
+    }
+
+    @Test
+    void testNoPassRunsWhileTheBrokerBlocksPublishing() {
+        when(publisher.isBlocked()).thenReturn(true);
+
+        relay.relay();
+
+        verifyNoInteractions(outboxRepository);
+    }
+
+    private NotificationOutboxEntry entry(String email) throws Exception {
+        NotificationRequest request = NotificationRequest.builder()
+                .notificationType(NotificationRequest.NotificationType.WELCOME_EMAIL.name())
+                .recipientEmail(email)
+                .recipientName("Test")
+                .timestamp(NOW)
+                .templateData(Map.of("userName", "Test"))
+                .build();
+        NotificationOutboxEntry entry = new NotificationOutboxEntry();
+        entry.setId(UUID.randomUUID());
+        entry.setNotificationType(request.getNotificationType());
+        entry.setRecipientEmail(email);
+        entry.setPayload(objectMapper.writeValueAsString(request));
+        entry.setAvailableAt(NOW);
+        return entry;
+    }
+}
@@ -0,0 +1,173 @@
+package org.solace.scholar_ai.user_service.service.notification;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.solace.scholar_ai.user_service.dto.notification.NotificationRequest;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.connection.ConnectionBlockedEvent;
+import org.springframework.amqp.rabbit.connection.ConnectionUnblockedEvent;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+class NotificationPublisherTest {
+
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final NotificationPublisher publisher = new NotificationPublisher(rabbitTemplate, meterRegistry, 2, 200);
+    private final List<CorrelationData> correlations = new ArrayList<>();
+
+    @BeforeEach
+    void captureCorrelations() {
+        doAnswer(invocation -> correlations.add(invocation.getArgument(4)))
+                .when(rabbitTemplate)
+                .convertAndSend(
+                        any(), any(), any(Object.class), any(MessagePostProcessor.class), any(CorrelationData.class));
+    }
+
+    @Test
+    void testPublishCompletesOnAckAndFailsOnNack() {
+        CompletableFuture<Void> acked = publisher.publish(request());
+        CompletableFuture<Void> nacked = publisher.publish(request());
+        assertFalse(acked.isDone());
+
+        correlations.get(0).getFuture().complete(new CorrelationData.Confirm(true, null));
+        correlations.get(1).getFuture().complete(new CorrelationData.Confirm(false, "queue full"));
+
+        acked.join();
+        CompletionException failed = assertThrows(CompletionException.class, nacked::join);
+        assertInstanceOf(AmqpException.class, failed.getCause());
+        assertEquals(
+                1,
+                meterRegistry
+                        .get("notification.publish.failed")
+                        .tag("reason", "nack")
+                        .counter()
+                        .count());
+        // Only the ack is timed
+        assertEquals(
+                1,
+                meterRegistry
+                        .get("notification.publish.confirm.latency")
+                        .timer()
+                        .count());
+    }
+
+    @Test
+    void testConfirmFailureIsNotReportedAsATimeout() {
+        CompletableFuture<Void> published = publisher.publish(request());
+
+        correlations.get(0).getFuture().completeExceptionally(new IllegalStateException("channel closed"));
+
+        CompletionException failed = assertThrows(CompletionException.class, published::join);
+        assertInstanceOf(AmqpException.class, failed.getCause());
+        assertFalse(failed.getCause() instanceof AmqpTimeoutException);
+        assertEquals(
+                1,
+                meterRegistry
+                        .get("notification.publish.failed")
+                        .tag("reason", "error")
+                        .counter()
+                        .count());
+        assertNull(meterRegistry
+                .find("notification.publish.failed")
+                .tag("reason", "timeout")
+                .counter());
+        assertEquals(
+                0,
+                meterRegistry
+                        .get("notification.publish.confirm.latency")
+                        .timer()
+                        .count());
+    }
+
+    @Test
+    void testFullWindowWaitsUntilUnconfirmedMessagesTimeOut() {
+        CompletableFuture<Void> first = publisher.publish(request());
+        CompletableFuture<Void> second = publisher.publish(request());
+        assertEquals(
+                2, meterRegistry.get("notification.publish.in-flight").gauge().value());
+
+        // Waits for a slot, which frees up once the first two give up on their confirms
+        long started = System.nanoTime();
+        publisher.publish(request());
+        assertTrue(System.nanoTime() - started >= 150_000_000L);
+
+        CompletionException timedOut = assertThrows(CompletionException.class, first::join);
+        assertInstanceOf(AmqpTimeoutException.class, timedOut.getCause());
+        assertThrows(CompletionException.class, second::join);
+        assertEquals(
+                2,
+                meterRegistry
+                        .get("notification.publish.failed")
+                        .tag("reason", "timeout")
+                        .counter()
+                        .count());
+    }
+
+    @Test
+    void testPublishingStopsWhileBlocked() {
+        publisher.onBlocked(new ConnectionBlockedEvent(mock(Connection.class), "low on memory"));
+        assertTrue(publisher.isBlocked());
+        assertThrows(AmqpException.class, () -> publisher.publish(request()));
+
+        publisher.onUnblocked(new ConnectionUnblockedEvent(mock(Connection.class)));
+        publisher.publish(request());
+        verify(rabbitTemplate)
+                .convertAndSend(
+                        any(), any(), eq(request()), any(MessagePostProcessor.class), any(CorrelationData.class));
+    }
+
+    @Test
+    void testNotificationTypeChoosesLaneAndPriority() {
+        publisher.publish(NotificationRequest.builder()
+                .notificationType(NotificationRequest.NotificationType.PASSWORD_RESET.name())
+                .build());
+        publisher.publish(
+                NotificationRequest.builder().notificationType("SOMETHING_NEW").build());
+
+        ArgumentCaptor<String> routingKeys = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<MessagePostProcessor> postProcessors = ArgumentCaptor.forClass(MessagePostProcessor.class);
+        verify(rabbitTemplate, times(2))
+                .convertAndSend(
+                        any(),
+                        routingKeys.capture(),
+                        any(Object.class),
+                        postProcessors.capture(),
+                        any(CorrelationData.class));
+        assertEquals(
+                List.of("notification.priority.password_reset", "notification.bulk.something_new"),
+                routingKeys.getAllValues());
+        assertEquals(9, priorityOf(postProcessors.getAllValues().get(0)));
+        assertEquals(0, priorityOf(postProcessors.getAllValues().get(1)));
+    }
+
+    private static int priorityOf(MessagePostProcessor postProcessor) {
+        return postProcessor
+                .postProcessMessage(new Message(new byte[0], new MessageProperties()))
+                .getMessageProperties()
+                .getPriority();
+    }
+
+    private static NotificationRequest request() {
+        return NotificationRequest.builder()
+                .notificationType(NotificationRequest.NotificationType.WELCOME_EMAIL.name())
+                .recipientEmail("test@example.com")
+                .build();
+    }
+}
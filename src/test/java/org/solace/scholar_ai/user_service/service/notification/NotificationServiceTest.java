@@ -0,0 +1,44 @@
+package org.solace.scholar_ai.user_service.service.notification;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.user_service.dto.notification.NotificationRequest;
+import org.solace.scholar_ai.user_service.model.NotificationOutboxEntry;
+import org.solace.scholar_ai.user_service.repository.NotificationOutboxRepository;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+class NotificationServiceTest {
+
+    private final NotificationOutboxRepository outboxRepository = mock(NotificationOutboxRepository.class);
+    private final NotificationDeduplicator deduplicator = mock(NotificationDeduplicator.class);
+    private final NotificationService notificationService = new NotificationService(
+            outboxRepository, new ObjectMapper().registerModule(new JavaTimeModule()), deduplicator);
+
+    @Test
+    void testClaimIsReleasedWhenTheOutboxWriteFailsOutsideATransaction() {
+        when(deduplicator.claim(any())).thenReturn(true);
+        when(outboxRepository.save(any(NotificationOutboxEntry.class)))
+                .thenThrow(new DataAccessResourceFailureException("database unavailable"));
+
+        assertThrows(
+                DataAccessResourceFailureException.class,
+                () -> notificationService.sendWelcomeEmail("test@example.com", "Test"));
+
+        verify(deduplicator).release(any(NotificationRequest.class));
+    }
+
+    @Test
+    void testClaimIsKeptOnceQueued() {
+        when(deduplicator.claim(any())).thenReturn(true);
+
+        notificationService.sendWelcomeEmail("test@example.com", "Test");
+
+        verify(outboxRepository).save(any(NotificationOutboxEntry.class));
+        verify(deduplicator, never()).release(any());
+    }
+}